@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.loadgen;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The portfolio requests the load generator can send. Each endpoint knows how to send one request
+ * and returns the HTTP status code of the response.
+ */
+enum Endpoint {
+
+  /** Lists the newest comments, like the comments section of index.html. */
+  GET_DATA("get-data") {
+    @Override
+    int send(HttpClient client, Options options) throws IOException {
+      return client.get(url(options, "/data?comment-limit=" + options.commentLimit));
+    }
+  },
+
+  /**
+   * Posts a comment. Comments are posted through Blobstore like the form in index.html does, so
+   * this gets an upload URL first and both requests are measured together.
+   */
+  POST_DATA("post-data") {
+    @Override
+    int send(HttpClient client, Options options) throws IOException {
+      HttpClient.Response uploadUrl = client.getBody(url(options, "/blobstore-upload-url"));
+      if (uploadUrl.status >= 400) {
+        return uploadUrl.status;
+      }
+      // Identical comments posted within a few seconds are dropped as duplicates, so make every
+      // comment different.
+      String content = "Load test comment " + COUNTER.incrementAndGet();
+      return client.postMultipart(new URL(url(options, "/"), uploadUrl.body.trim()),
+          "text-input", content);
+    }
+  },
+
+  /** Gets the login status, like every page load does. */
+  GET_LOGIN("login") {
+    @Override
+    int send(HttpClient client, Options options) throws IOException {
+      return client.get(url(options, "/login"));
+    }
+  },
+
+  /** Gets the nickname of the logged in user. */
+  GET_NICKNAME("get-nickname") {
+    @Override
+    int send(HttpClient client, Options options) throws IOException {
+      return client.get(url(options, "/nickname"));
+    }
+  },
+
+  /**
+   * Changes the nickname of the logged in user, which also updates the user's comments in the
+   * background.
+   */
+  POST_NICKNAME("post-nickname") {
+    @Override
+    int send(HttpClient client, Options options) throws IOException {
+      String nickname = "LoadTest" + COUNTER.incrementAndGet();
+      return client.postForm(url(options, "/nickname"),
+          "nickname=" + URLEncoder.encode(nickname, "UTF-8"));
+    }
+  };
+
+  private static final AtomicLong COUNTER = new AtomicLong();
+
+  private final String name;
+
+  Endpoint(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns the name of the endpoint used in the --mix option and in the report.
+   */
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the endpoint with the given name, or throws IllegalArgumentException.
+   */
+  static Endpoint forName(String name) {
+    for (Endpoint endpoint : values()) {
+      if (endpoint.name.equals(name)) {
+        return endpoint;
+      }
+    }
+    throw new IllegalArgumentException("Unknown endpoint: " + name);
+  }
+
+  /**
+   * Sends one request and returns the status code of the response.
+   */
+  abstract int send(HttpClient client, Options options) throws IOException;
+
+  private static URL url(Options options, String path) throws IOException {
+    return new URL(options.baseUrl + path);
+  }
+}
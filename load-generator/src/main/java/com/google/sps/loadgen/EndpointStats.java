@@ -0,0 +1,65 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.loadgen;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and error counts of the requests sent to one endpoint. Latencies are recorded in
+ * microseconds and may be recorded from any thread.
+ */
+final class EndpointStats {
+
+  private final Endpoint endpoint;
+  private final Recorder recorder = new Recorder(3);
+  private final LongAdder errors = new LongAdder();
+  private Histogram histogram = null;
+
+  EndpointStats(Endpoint endpoint) {
+    this.endpoint = endpoint;
+  }
+
+  Endpoint getEndpoint() {
+    return endpoint;
+  }
+
+  /**
+   * Records a request that took latencyNanos. A request failed if it threw or the server answered
+   * with a 4xx or 5xx status.
+   */
+  void record(long latencyNanos, boolean failed) {
+    recorder.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    if (failed) {
+      errors.increment();
+    }
+  }
+
+  long getErrors() {
+    return errors.sum();
+  }
+
+  /**
+   * Returns the latencies recorded so far. Call it once, after the run.
+   */
+  Histogram getHistogram() {
+    if (histogram == null) {
+      histogram = recorder.getIntervalHistogram();
+    }
+    return histogram;
+  }
+}
@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.loadgen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends requests with HttpURLConnection. Redirects are not followed, since the portfolio answers
+ * every form post with a redirect to index.html. Response bodies are always read to the end so
+ * that connections are kept alive and reused.
+ */
+final class HttpClient {
+
+  private static final String BOUNDARY = "----load-generator-boundary";
+
+  private final String cookie;
+  private final int timeoutMillis;
+
+  HttpClient(String cookie, int timeoutMillis) {
+    this.cookie = cookie;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /** Status code and body of a response. */
+  static final class Response {
+    final int status;
+    final String body;
+
+    Response(int status, String body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+
+  int get(URL url) throws IOException {
+    return getBody(url).status;
+  }
+
+  Response getBody(URL url) throws IOException {
+    HttpURLConnection connection = open(url, "GET");
+    return readResponse(connection);
+  }
+
+  int postForm(URL url, String encodedForm) throws IOException {
+    HttpURLConnection connection = open(url, "POST");
+    connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+    writeBody(connection, encodedForm.getBytes(StandardCharsets.UTF_8));
+    return readResponse(connection).status;
+  }
+
+  /**
+   * Posts a multipart/form-data request with a single text field.
+   */
+  int postMultipart(URL url, String fieldName, String value) throws IOException {
+    HttpURLConnection connection = open(url, "POST");
+    connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + BOUNDARY);
+    String body = "--" + BOUNDARY + "\r\n"
+        + "Content-Disposition: form-data; name=\"" + fieldName + "\"\r\n\r\n"
+        + value + "\r\n"
+        + "--" + BOUNDARY + "--\r\n";
+    writeBody(connection, body.getBytes(StandardCharsets.UTF_8));
+    return readResponse(connection).status;
+  }
+
+  private HttpURLConnection open(URL url, String method) throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod(method);
+    connection.setInstanceFollowRedirects(false);
+    connection.setConnectTimeout(timeoutMillis);
+    connection.setReadTimeout(timeoutMillis);
+    if (cookie != null) {
+      connection.setRequestProperty("Cookie", cookie);
+    }
+    return connection;
+  }
+
+  private static void writeBody(HttpURLConnection connection, byte[] body) throws IOException {
+    connection.setDoOutput(true);
+    connection.setFixedLengthStreamingMode(body.length);
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(body);
+    }
+  }
+
+  private static Response readResponse(HttpURLConnection connection) throws IOException {
+    int status = connection.getResponseCode();
+    InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+    if (in == null) {
+      return new Response(status, "");
+    }
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try (InputStream stream = in) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = stream.read(buffer)) != -1) {
+        body.write(buffer, 0, read);
+      }
+    }
+    return new Response(status, new String(body.toByteArray(), StandardCharsets.UTF_8));
+  }
+}
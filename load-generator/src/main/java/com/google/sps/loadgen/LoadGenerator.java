@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.loadgen;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Sends a mix of portfolio requests to a server, usually the local dev server started with
+ * `mvn package appengine:run`, and prints the latency percentiles and throughput of each endpoint.
+ * Run it with no arguments or --help for the options.
+ */
+public final class LoadGenerator {
+
+  private LoadGenerator() {
+    // Disallow instances.
+  }
+
+  public static void main(String[] args) throws InterruptedException, FileNotFoundException {
+    if (args.length == 1 && args[0].equals("--help")) {
+      System.out.println(Options.USAGE);
+      return;
+    }
+    Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(Options.USAGE);
+      System.exit(2);
+      return;
+    }
+
+    System.out.printf("Loading %s in %s mode for %ds after a %ds warmup%n", options.baseUrl,
+        options.mode.toString().toLowerCase(), options.durationSeconds, options.warmupSeconds);
+    LoadRunner runner = new LoadRunner(options);
+    runner.run();
+
+    printReport(System.out, runner, options);
+    if (options.histogramDir != null) {
+      writeHistograms(runner, options.histogramDir);
+    }
+  }
+
+  private static void printReport(PrintStream out, LoadRunner runner, Options options) {
+    if (options.mode == Options.Mode.OPEN) {
+      out.printf("Target rate: %.1f req/s%n", options.rate);
+      if (runner.getBacklog() > 0) {
+        out.printf("The server fell behind: %d requests had not started when the run ended%n",
+            runner.getBacklog());
+      }
+    }
+    out.printf("%-14s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+        "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+    Histogram total = new Histogram(3);
+    long totalErrors = 0;
+    for (EndpointStats stats : runner.getStats().values()) {
+      Histogram histogram = stats.getHistogram();
+      printRow(out, stats.getEndpoint().getName(), histogram, stats.getErrors(), options);
+      total.add(histogram);
+      totalErrors += stats.getErrors();
+    }
+    printRow(out, "total", total, totalErrors, options);
+  }
+
+  private static void printRow(PrintStream out, String name, Histogram histogram, long errors,
+      Options options) {
+    long count = histogram.getTotalCount();
+    if (count == 0) {
+      out.printf("%-14s %8d %7d %9.1f%n", name, 0, errors, 0.0);
+      return;
+    }
+    out.printf("%-14s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, count, errors,
+        (double) count / options.durationSeconds,
+        millis(histogram.getValueAtPercentile(50)),
+        millis(histogram.getValueAtPercentile(90)),
+        millis(histogram.getValueAtPercentile(99)),
+        millis(histogram.getValueAtPercentile(99.9)),
+        millis(histogram.getMaxValue()));
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+  /**
+   * Writes the percentile distribution of each endpoint, in milliseconds, in the .hgrm format
+   * that the HdrHistogram plotter reads.
+   */
+  private static void writeHistograms(LoadRunner runner, String directory)
+      throws FileNotFoundException {
+    new File(directory).mkdirs();
+    for (EndpointStats stats : runner.getStats().values()) {
+      File file = new File(directory, stats.getEndpoint().getName() + ".hgrm");
+      try (PrintStream out = new PrintStream(file)) {
+        stats.getHistogram().outputPercentileDistribution(out, 1000.0);
+      }
+    }
+  }
+}
@@ -0,0 +1,149 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.loadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests to the server for the warmup and the measured duration of a run.
+ *
+ * <p>In open mode requests are scheduled at a constant rate, whether or not earlier requests have
+ * finished, and the latency of a request is measured from the time it was scheduled to start. If
+ * the server falls behind, requests wait for a free thread and that wait is part of their
+ * latency. This avoids coordinated omission: a closed loop sends fewer requests while the server
+ * is slow, so its percentiles leave out most of the time users would have been waiting.
+ *
+ * <p>In closed mode each thread sends a request as soon as its previous one finishes, which
+ * measures the throughput the server reaches with a fixed number of concurrent users.
+ */
+final class LoadRunner {
+
+  private final Options options;
+  private final Mix mix;
+  private final HttpClient client;
+  private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+  private long backlog = 0;
+
+  LoadRunner(Options options) {
+    this.options = options;
+    this.mix = new Mix(options.mix);
+    this.client = new HttpClient(options.cookie, options.timeoutMillis);
+    for (Endpoint endpoint : options.mix.keySet()) {
+      stats.put(endpoint, new EndpointStats(endpoint));
+    }
+  }
+
+  /**
+   * Returns the stats of each endpoint of the mix.
+   */
+  Map<Endpoint, EndpointStats> getStats() {
+    return stats;
+  }
+
+  /**
+   * Returns the number of requests of an open run that were scheduled but not yet started when
+   * the run ended. A backlog means the server could not keep up with the rate.
+   */
+  long getBacklog() {
+    return backlog;
+  }
+
+  void run() throws InterruptedException {
+    if (options.mode == Options.Mode.OPEN) {
+      runOpenLoop();
+    } else {
+      runClosedLoop();
+    }
+  }
+
+  private void runOpenLoop() throws InterruptedException {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(options.threads, options.threads,
+        0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    Random random = new Random(options.seed);
+    long start = System.nanoTime();
+    long measureStart = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+    long end = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+    for (long i = 0; ; i++) {
+      // Compute each start time from the first one, so rounding errors don't add up.
+      long intendedStart = start + (long) (i * 1e9 / options.rate);
+      if (intendedStart - end >= 0) {
+        break;
+      }
+      waitUntil(intendedStart);
+      Endpoint endpoint = mix.pick(random);
+      boolean measured = intendedStart - measureStart >= 0;
+      executor.execute(() -> sendAndRecord(endpoint, intendedStart, measured));
+    }
+
+    backlog = executor.getQueue().size();
+    awaitRequests(executor);
+  }
+
+  private void runClosedLoop() throws InterruptedException {
+    ExecutorService executor = new ThreadPoolExecutor(options.threads, options.threads,
+        0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    long start = System.nanoTime();
+    long measureStart = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+    long end = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+    for (int i = 0; i < options.threads; i++) {
+      Random random = new Random(options.seed + i);
+      executor.execute(() -> {
+        long requestStart;
+        while ((requestStart = System.nanoTime()) - end < 0) {
+          sendAndRecord(mix.pick(random), requestStart, requestStart - measureStart >= 0);
+        }
+      });
+    }
+
+    awaitRequests(executor);
+  }
+
+  private void sendAndRecord(Endpoint endpoint, long startNanos, boolean measured) {
+    boolean failed;
+    try {
+      failed = endpoint.send(client, options) >= 400;
+    } catch (Exception e) {
+      failed = true;
+    }
+    if (measured) {
+      stats.get(endpoint).record(System.nanoTime() - startNanos, failed);
+    }
+  }
+
+  private void awaitRequests(ExecutorService executor) throws InterruptedException {
+    executor.shutdown();
+    // Requests still running after their timeouts have expired are abandoned.
+    if (!executor.awaitTermination(2L * options.timeoutMillis + 1000, TimeUnit.MILLISECONDS)) {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void waitUntil(long nanoTime) {
+    long remaining;
+    while ((remaining = nanoTime - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+}
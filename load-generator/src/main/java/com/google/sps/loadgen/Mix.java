@@ -0,0 +1,50 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.loadgen;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Picks endpoints at random in proportion to their weights.
+ */
+final class Mix {
+
+  private final Endpoint[] endpoints;
+  private final int[] cumulativeWeights;
+
+  Mix(Map<Endpoint, Integer> weights) {
+    endpoints = new Endpoint[weights.size()];
+    cumulativeWeights = new int[weights.size()];
+    int total = 0;
+    int i = 0;
+    for (Map.Entry<Endpoint, Integer> entry : weights.entrySet()) {
+      total += entry.getValue();
+      endpoints[i] = entry.getKey();
+      cumulativeWeights[i] = total;
+      i++;
+    }
+  }
+
+  Endpoint pick(Random random) {
+    int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (value < cumulativeWeights[i]) {
+        return endpoints[i];
+      }
+    }
+    throw new AssertionError();
+  }
+}
@@ -0,0 +1,158 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.loadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Command line options of the load generator. Options are given as --name=value.
+ */
+final class Options {
+
+  static final String USAGE = String.join("\n",
+      "Usage: LoadGenerator [--name=value ...]",
+      "  --base-url=URL        Server to load (default http://localhost:8080)",
+      "  --mode=open|closed    open: send --rate requests per second whatever the response",
+      "                        times are. closed: --threads users each send a request as soon",
+      "                        as the previous one finishes. (default open)",
+      "  --rate=N              Requests per second in open mode (default 50)",
+      "  --threads=N           Users in closed mode, or the most requests in flight in open",
+      "                        mode (default 10 closed, 200 open)",
+      "  --duration=SECONDS    Length of the measured run (default 60)",
+      "  --warmup=SECONDS      Length of the unmeasured run before it (default 10)",
+      "  --mix=NAME=W,...      Relative weights of the endpoints get-data, post-data, login,",
+      "                        get-nickname and post-nickname",
+      "                        (default get-data=80,login=10,post-data=5,get-nickname=3,",
+      "                        post-nickname=2)",
+      "  --comment-limit=N     comment-limit of get-data requests (default 10)",
+      "  --cookie=COOKIE       Cookie header sent with every request, for example the",
+      "                        dev_appserver_login cookie of a logged in browser",
+      "  --timeout=MILLIS      Connect and read timeout (default 10000)",
+      "  --seed=N              Seed of the endpoint choices (default 1)",
+      "  --histogram-dir=DIR   Also write the percentile distribution of each endpoint to",
+      "                        DIR/<endpoint>.hgrm");
+
+  /** How requests are scheduled. */
+  enum Mode {
+    OPEN, CLOSED
+  }
+
+  String baseUrl = "http://localhost:8080";
+  Mode mode = Mode.OPEN;
+  double rate = 50;
+  int threads = -1; // Depends on the mode when not set.
+  int durationSeconds = 60;
+  int warmupSeconds = 10;
+  Map<Endpoint, Integer> mix = parseMix(
+      "get-data=80,login=10,post-data=5,get-nickname=3,post-nickname=2");
+  int commentLimit = 10;
+  String cookie = null;
+  int timeoutMillis = 10000;
+  long seed = 1;
+  String histogramDir = null;
+
+  /**
+   * Parses the command line arguments. Throws IllegalArgumentException if an argument is invalid.
+   */
+  static Options parse(String[] args) {
+    Options options = new Options();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (!arg.startsWith("--") || equals < 0) {
+        throw new IllegalArgumentException("Expected --name=value: " + arg);
+      }
+      String name = arg.substring(2, equals);
+      String value = arg.substring(equals + 1);
+      try {
+        options.set(name, value);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid number for --" + name + ": " + value);
+      }
+    }
+
+    if (options.threads < 0) {
+      options.threads = options.mode == Mode.OPEN ? 200 : 10;
+    }
+    if (options.rate <= 0 || options.threads <= 0 || options.durationSeconds <= 0
+        || options.warmupSeconds < 0) {
+      throw new IllegalArgumentException(
+          "--rate, --threads and --duration must be positive and --warmup not negative");
+    }
+    return options;
+  }
+
+  private void set(String name, String value) {
+    switch (name) {
+      case "base-url":
+        baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+        break;
+      case "mode":
+        mode = Mode.valueOf(value.toUpperCase());
+        break;
+      case "rate":
+        rate = Double.parseDouble(value);
+        break;
+      case "threads":
+        threads = Integer.parseInt(value);
+        break;
+      case "duration":
+        durationSeconds = Integer.parseInt(value);
+        break;
+      case "warmup":
+        warmupSeconds = Integer.parseInt(value);
+        break;
+      case "mix":
+        mix = parseMix(value);
+        break;
+      case "comment-limit":
+        commentLimit = Integer.parseInt(value);
+        break;
+      case "cookie":
+        cookie = value;
+        break;
+      case "timeout":
+        timeoutMillis = Integer.parseInt(value);
+        break;
+      case "seed":
+        seed = Long.parseLong(value);
+        break;
+      case "histogram-dir":
+        histogramDir = value;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown option: --" + name);
+    }
+  }
+
+  private static Map<Endpoint, Integer> parseMix(String value) {
+    Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+    for (String entry : value.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Expected endpoint=weight in --mix: " + entry);
+      }
+      int weight = Integer.parseInt(parts[1]);
+      if (weight < 0) {
+        throw new IllegalArgumentException("Negative weight in --mix: " + entry);
+      }
+      mix.put(Endpoint.forName(parts[0]), weight);
+    }
+    if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("--mix needs at least one positive weight");
+    }
+    return mix;
+  }
+}
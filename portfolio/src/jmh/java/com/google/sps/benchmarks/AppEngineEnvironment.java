@@ -0,0 +1,108 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.appengine.tools.development.testing.LocalUserServiceTestConfig;
+import com.google.sps.classes.CommentContent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-memory App Engine services for the benchmarks. The services are bound to the thread that
+ * calls start, so benchmarks must call it from a Scope.Thread setup method.
+ */
+final class AppEngineEnvironment {
+
+  static final String USER_ID = "123456789";
+  static final String USER_EMAIL = "benchmark@example.com";
+  static final String USER_NICKNAME = "Benchmark";
+
+  private static final String USER_ID_ATTRIBUTE =
+      "com.google.appengine.api.users.UserService.user_id_key";
+
+  private AppEngineEnvironment() {
+    // Disallow instances.
+  }
+
+  /**
+   * Starts an empty in-memory Datastore and a user service where USER_ID is logged in if loggedIn
+   * is true. Call tearDown on the returned helper when done.
+   */
+  static LocalServiceTestHelper start(boolean loggedIn) {
+    LocalServiceTestHelper helper =
+        new LocalServiceTestHelper(
+                new LocalDatastoreServiceTestConfig().setNoStorage(true),
+                new LocalUserServiceTestConfig())
+            .setEnvIsLoggedIn(loggedIn)
+            .setEnvEmail(USER_EMAIL)
+            .setEnvAuthDomain("example.com")
+            .setEnvAttributes(Collections.singletonMap(USER_ID_ATTRIBUTE, (Object) USER_ID));
+    helper.setUp();
+    return helper;
+  }
+
+  /**
+   * Stores the nickname of USER_ID.
+   */
+  static void storeUser() {
+    Entity entity = new Entity("UserInfo", USER_ID);
+    entity.setProperty("id", USER_ID);
+    entity.setProperty("nickname", USER_NICKNAME);
+    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    datastore.put(entity);
+  }
+
+  /**
+   * Stores count comments by USER_ID, the way DataServlet.doPost does, each with contentLength
+   * characters of content.
+   */
+  static void storeComments(int count, int contentLength) {
+    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    datastore.put(newComments(count, contentLength));
+  }
+
+  /**
+   * Returns count comment entities by USER_ID, without storing them.
+   */
+  static List<Entity> newComments(int count, int contentLength) {
+    List<Entity> comments = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Entity commentEntity = new Entity("Comment", i + 1);
+      commentEntity.setProperty("authorId", USER_ID);
+      commentEntity.setProperty("nickname", USER_NICKNAME);
+      CommentContent.setContent(commentEntity, content(i, contentLength));
+      commentEntity.setProperty("imageUrl", null);
+      commentEntity.setProperty("timestamp", 1590000000000L + i);
+      comments.add(commentEntity);
+    }
+    return comments;
+  }
+
+  private static String content(int seed, int length) {
+    StringBuilder content = new StringBuilder(length);
+    String words = "lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod ";
+    int i = seed;
+    while (content.length() < length) {
+      content.append(words.charAt(i++ % words.length()));
+    }
+    return content.toString();
+  }
+}
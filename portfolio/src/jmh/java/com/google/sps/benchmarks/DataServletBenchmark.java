@@ -0,0 +1,103 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.sps.classes.DatastoreProvider;
+import com.google.sps.servlets.DataServlet;
+import com.google.sps.testing.LatencyDistribution;
+import com.google.sps.testing.LatencyInjectingDatastoreService;
+import com.google.sps.testing.LatencyInjectingDatastoreService.Operation;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs DataServlet.doGet end to end against an in-memory Datastore holding 500 comments. With the
+ * "typical" latency profile, Datastore calls take about as long as in production, so the result
+ * shows how much of a request is spent waiting on Datastore.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataServletBenchmark {
+
+  private static final int STORED_COMMENTS = 500;
+
+  @Param({"10", "50"})
+  public int commentLimit;
+
+  // Comments longer than CommentContent.INLINE_LIMIT are stored as a preview.
+  @Param({"100", "2000"})
+  public int contentLength;
+
+  @Param({"none", "typical"})
+  public String latencyProfile;
+
+  private LocalServiceTestHelper helper;
+  private final DataServlet servlet = new DataServlet();
+  private final FakeHttp.CountingWriter writer = new FakeHttp.CountingWriter();
+  private HttpServletRequest request;
+  private HttpServletResponse response;
+
+  @Setup
+  public void setUp() {
+    helper = AppEngineEnvironment.start(false);
+    AppEngineEnvironment.storeComments(STORED_COMMENTS, contentLength);
+    if (latencyProfile.equals("typical")) {
+      DatastoreService datastore = LatencyInjectingDatastoreService.builder()
+          .latency(Operation.GET, LatencyDistribution.logNormal(4_000, 30_000))
+          .latency(Operation.QUERY, LatencyDistribution.logNormal(10_000, 80_000))
+          .latency(Operation.PUT, LatencyDistribution.logNormal(15_000, 100_000))
+          .seed(42)
+          .build()
+          .wrapDefault();
+      DatastoreProvider.setSupplier(() -> datastore);
+    }
+    request = FakeHttp.request(
+        Collections.singletonMap("comment-limit", Integer.toString(commentLimit)));
+    response = FakeHttp.response(writer);
+  }
+
+  @TearDown
+  public void tearDown() {
+    DatastoreProvider.reset();
+    helper.tearDown();
+  }
+
+  @Benchmark
+  public long doGet() throws IOException {
+    servlet.doGet(request, response);
+    return writer.getCount();
+  }
+}
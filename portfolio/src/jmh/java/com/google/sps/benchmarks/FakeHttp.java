@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Minimal HttpServletRequest and HttpServletResponse implementations, enough to call the doGet
+ * methods of the servlets without a servlet container.
+ */
+final class FakeHttp {
+
+  private FakeHttp() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns a request with the given parameters and no headers or attributes.
+   */
+  static HttpServletRequest request(Map<String, String> parameters) {
+    InvocationHandler handler = (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getParameter":
+          return parameters.get((String) args[0]);
+        case "getParameterMap":
+          return Collections.unmodifiableMap(parameters);
+        case "getMethod":
+          return "GET";
+        default:
+          return defaultValue(method.getReturnType());
+      }
+    };
+    return (HttpServletRequest) Proxy.newProxyInstance(FakeHttp.class.getClassLoader(),
+        new Class<?>[] {HttpServletRequest.class}, handler);
+  }
+
+  /**
+   * Returns a response whose body is written to out. Headers, status codes and redirects are
+   * ignored.
+   */
+  static HttpServletResponse response(Writer out) {
+    PrintWriter writer = new PrintWriter(out);
+    InvocationHandler handler = (proxy, method, args) -> {
+      if (method.getName().equals("getWriter")) {
+        return writer;
+      }
+      return defaultValue(method.getReturnType());
+    };
+    return (HttpServletResponse) Proxy.newProxyInstance(FakeHttp.class.getClassLoader(),
+        new Class<?>[] {HttpServletResponse.class}, handler);
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == int.class) {
+      return 0;
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    return null;
+  }
+
+  /**
+   * Writer that only counts the characters written to it, so benchmarks do not measure copying the
+   * response into a buffer.
+   */
+  static final class CountingWriter extends Writer {
+    private long count = 0;
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      count += length;
+    }
+
+    @Override
+    public void write(String string, int offset, int length) {
+      count += length;
+    }
+
+    @Override
+    public void write(int c) {
+      count++;
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    long getCount() {
+      return count;
+    }
+  }
+}
@@ -0,0 +1,125 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.sps.classes.JsonCodec;
+import com.google.sps.data.Comment;
+import com.google.sps.data.UserAuthenticationData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the ways of writing the JSON responses of /data and /login: a new reflective Gson per
+ * request, as the servlets used to do, a shared reflective Gson, the same writing straight to the
+ * response writer, and JsonCodec, which the servlets use now: a shared Gson with hand-written
+ * TypeAdapters writing straight to the response writer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+  private static final Gson SHARED_GSON = new Gson();
+
+  private final FakeHttp.CountingWriter writer = new FakeHttp.CountingWriter();
+  private UserAuthenticationData userAuthenticationData;
+
+  /**
+   * The comments of a /data response.
+   */
+  @State(Scope.Thread)
+  public static class Comments {
+    @Param({"10", "100"})
+    public int commentCount;
+
+    List<Comment> comments;
+
+    @Setup
+    public void setUp() {
+      comments = new ArrayList<>(commentCount);
+      for (int i = 0; i < commentCount; i++) {
+        comments.add(new Comment(i, AppEngineEnvironment.USER_ID,
+            AppEngineEnvironment.USER_NICKNAME, "Comment number " + i + " with some text in it.",
+            false, null, 1590000000000L + i));
+      }
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    userAuthenticationData = new UserAuthenticationData(true, "/_ah/logout?continue=%2F",
+        AppEngineEnvironment.USER_EMAIL, AppEngineEnvironment.USER_NICKNAME);
+  }
+
+  @Benchmark
+  public String commentsPerRequestGson(Comments state) {
+    return new Gson().toJson(state.comments);
+  }
+
+  @Benchmark
+  public String commentsSharedGson(Comments state) {
+    return SHARED_GSON.toJson(state.comments);
+  }
+
+  @Benchmark
+  public long commentsSharedGsonStreaming(Comments state) {
+    SHARED_GSON.toJson(state.comments, writer);
+    return writer.getCount();
+  }
+
+  @Benchmark
+  public long commentsJsonCodec(Comments state) {
+    JsonCodec.getGson().toJson(state.comments, writer);
+    return writer.getCount();
+  }
+
+  @Benchmark
+  public String userPerRequestGson() {
+    return new Gson().toJson(userAuthenticationData);
+  }
+
+  @Benchmark
+  public String userSharedGson() {
+    return SHARED_GSON.toJson(userAuthenticationData);
+  }
+
+  @Benchmark
+  public long userSharedGsonStreaming() {
+    SHARED_GSON.toJson(userAuthenticationData, writer);
+    return writer.getCount();
+  }
+
+  @Benchmark
+  public long userJsonCodec() {
+    JsonCodec.getGson().toJson(userAuthenticationData, writer);
+    return writer.getCount();
+  }
+}
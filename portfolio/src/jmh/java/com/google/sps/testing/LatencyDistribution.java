@@ -0,0 +1,54 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.testing;
+
+import java.util.Random;
+
+/**
+ * Distribution of the latency of a simulated remote call.
+ */
+public interface LatencyDistribution {
+
+  /** Distribution of calls that add no latency. */
+  LatencyDistribution NONE = random -> 0;
+
+  /**
+   * Returns a latency in microseconds.
+   */
+  long sampleMicros(Random random);
+
+  /**
+   * Returns a distribution where every call takes micros microseconds.
+   */
+  static LatencyDistribution constant(long micros) {
+    return random -> micros;
+  }
+
+  /**
+   * Returns a log-normal distribution with the given median and 99th percentile, in microseconds.
+   * Latencies of remote services usually have this shape: most calls are close to the median and
+   * a long tail of slow calls.
+   */
+  static LatencyDistribution logNormal(long medianMicros, long p99Micros) {
+    if (medianMicros <= 0 || p99Micros < medianMicros) {
+      throw new IllegalArgumentException(
+          "Need 0 < median <= p99, got " + medianMicros + " and " + p99Micros);
+    }
+    double mu = Math.log(medianMicros);
+    // 2.326 is the 99th percentile of the standard normal distribution.
+    double sigma = (Math.log(p99Micros) - mu) / 2.326;
+    return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+  }
+}
@@ -0,0 +1,206 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.testing;
+
+import com.google.appengine.api.datastore.DatastoreFailureException;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.PreparedQuery;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * DatastoreService that delays and fails calls before passing them to another DatastoreService,
+ * to reproduce the latency of the production Datastore in benchmarks and load tests.
+ *
+ * <p>The delegate is usually the in-memory Datastore of LocalServiceTestHelper, which supports
+ * every query used by the servlets: sorts on "timestamp", equality filters on "id" and
+ * "authorId", and keys-only queries. Queries are delayed when they run, not when they are
+ * prepared.
+ *
+ * <p>Create instances with the builder and install them with DatastoreProvider.setSupplier.
+ */
+public final class LatencyInjectingDatastoreService {
+
+  /**
+   * The kinds of Datastore calls, which can have different latencies and failure rates.
+   */
+  public enum Operation {
+    GET, PUT, DELETE, QUERY, TRANSACTION, OTHER
+  }
+
+  private final Map<Operation, LatencyDistribution> latencies;
+  private final Map<Operation, Double> failureRates;
+  private final Random random; // Null to use ThreadLocalRandom.
+
+  private LatencyInjectingDatastoreService(Builder builder) {
+    this.latencies = new EnumMap<>(builder.latencies);
+    this.failureRates = new EnumMap<>(builder.failureRates);
+    this.random = builder.seed == null ? null : new Random(builder.seed);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns a DatastoreService that injects latency and failures in front of delegate.
+   */
+  public DatastoreService wrap(DatastoreService delegate) {
+    return proxy(DatastoreService.class, delegate);
+  }
+
+  /**
+   * Returns a DatastoreService that injects latency and failures in front of the DatastoreService
+   * of DatastoreServiceFactory.
+   */
+  public DatastoreService wrapDefault() {
+    return wrap(DatastoreServiceFactory.getDatastoreService());
+  }
+
+  private <T> T proxy(Class<T> type, T delegate) {
+    InvocationHandler handler = (proxy, method, args) -> {
+      Operation operation = operationOf(method);
+      if (operation != null) {
+        simulate(operation, method);
+      }
+      Object result;
+      try {
+        result = method.invoke(delegate, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      if (result instanceof PreparedQuery) {
+        return proxy(PreparedQuery.class, (PreparedQuery) result);
+      }
+      return result;
+    };
+    return type.cast(
+        Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+  }
+
+  /**
+   * Returns the operation of a DatastoreService or PreparedQuery method, or null for methods that
+   * do not call Datastore.
+   */
+  private static Operation operationOf(Method method) {
+    String name = method.getName();
+    if (method.getDeclaringClass() == Object.class) {
+      return null;
+    }
+    if (method.getDeclaringClass() == PreparedQuery.class) {
+      return name.startsWith("as") || name.equals("countEntities") ? Operation.QUERY : null;
+    }
+    switch (name) {
+      case "get":
+        return Operation.GET;
+      case "put":
+        return Operation.PUT;
+      case "delete":
+        return Operation.DELETE;
+      case "beginTransaction":
+        return Operation.TRANSACTION;
+      case "prepare":
+      case "getActiveTransactions":
+      case "getCurrentTransaction":
+        return null;
+      default:
+        return Operation.OTHER;
+    }
+  }
+
+  private void simulate(Operation operation, Method method) {
+    LatencyDistribution latency = latencies.getOrDefault(operation, LatencyDistribution.NONE);
+    double failureRate = failureRates.getOrDefault(operation, 0.0);
+    long micros;
+    boolean fail;
+    if (random == null) {
+      micros = latency.sampleMicros(ThreadLocalRandom.current());
+      fail = failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+    } else {
+      // Calls from several threads share the seeded Random.
+      synchronized (random) {
+        micros = latency.sampleMicros(random);
+        fail = failureRate > 0 && random.nextDouble() < failureRate;
+      }
+    }
+
+    if (micros > 0) {
+      LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+    if (fail) {
+      throw new DatastoreFailureException("Injected failure in " + method.getName());
+    }
+  }
+
+  /**
+   * Builder of LatencyInjectingDatastoreService. Operations without a latency or failure rate are
+   * passed through immediately.
+   */
+  public static final class Builder {
+    private final Map<Operation, LatencyDistribution> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Double> failureRates = new EnumMap<>(Operation.class);
+    private Long seed = null;
+
+    private Builder() {}
+
+    public Builder latency(Operation operation, LatencyDistribution latency) {
+      latencies.put(operation, latency);
+      return this;
+    }
+
+    /**
+     * Sets the same latency for every operation.
+     */
+    public Builder latency(LatencyDistribution latency) {
+      for (Operation operation : Operation.values()) {
+        latencies.put(operation, latency);
+      }
+      return this;
+    }
+
+    /**
+     * Makes a fraction of the calls of operation throw DatastoreFailureException, after their
+     * latency.
+     */
+    public Builder failureRate(Operation operation, double rate) {
+      if (rate < 0 || rate > 1) {
+        throw new IllegalArgumentException("Failure rate must be between 0 and 1: " + rate);
+      }
+      failureRates.put(operation, rate);
+      return this;
+    }
+
+    /**
+     * Makes the sequence of latencies and failures reproducible.
+     */
+    public Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    public LatencyInjectingDatastoreService build() {
+      return new LatencyInjectingDatastoreService(this);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.launcher;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.DispatcherType;
+import org.eclipse.jetty.annotations.AnnotationConfiguration;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.resource.Resource;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.eclipse.jetty.webapp.Configuration;
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.eclipse.jetty.webapp.WebInfConfiguration;
+import org.eclipse.jetty.webapp.WebXmlConfiguration;
+
+/**
+ * Runs the portfolio in an embedded Jetty server, with in-memory App Engine services, so that the
+ * thread pool, the acceptors and request queueing can be tuned for load tests. The servlets and
+ * listeners are found through their @WebServlet and @WebListener annotations, like on App Engine.
+ *
+ * <p>Uploads through Blobstore need the App Engine dev server, so posting a comment with an image
+ * does not work here.
+ */
+public final class EmbeddedLauncher {
+
+  private EmbeddedLauncher() {
+    // Disallow instances.
+  }
+
+  public static void main(String[] args) throws Exception {
+    long startNanos = System.nanoTime();
+    if (args.length > 0 && args[args.length - 1].equals("--help")) {
+      System.out.println(LauncherOptions.USAGE);
+      return;
+    }
+    LauncherOptions options;
+    try {
+      options = LauncherOptions.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(LauncherOptions.USAGE);
+      System.exit(2);
+      return;
+    }
+
+    LocalAppEngine appEngine = LocalAppEngine.start(options);
+    ThreadPool threadPool = createThreadPool(options);
+    Server server = new Server(threadPool);
+
+    ServerConnector connector =
+        new ServerConnector(server, options.acceptors, options.selectors);
+    connector.setHost(options.host);
+    connector.setPort(options.port);
+    connector.setAcceptQueueSize(options.acceptQueue);
+    server.addConnector(connector);
+
+    WebAppContext context = new WebAppContext();
+    context.setContextPath("/");
+    context.setResourceBase(options.webapp);
+    // The servlets are on the classpath of the launcher, not in WEB-INF/lib.
+    context.setParentLoaderPriority(true);
+    context.setConfigurations(new Configuration[] {
+        new WebInfConfiguration(), new WebXmlConfiguration(), new AnnotationConfiguration()});
+    context.getMetaData().setWebInfClassesDirs(
+        Collections.singletonList(Resource.newResource(options.classes)));
+
+    LoadSheddingFilter loadSheddingFilter = null;
+    if (options.maxConcurrent > 0) {
+      loadSheddingFilter = new LoadSheddingFilter(options.maxConcurrent, options.queueWaitMillis);
+      context.addFilter(new FilterHolder(loadSheddingFilter), "/*",
+          EnumSet.of(DispatcherType.REQUEST));
+    }
+    context.addFilter(new FilterHolder(appEngine), "/*", EnumSet.of(DispatcherType.REQUEST));
+    server.setHandler(context);
+
+    server.start();
+    long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    long jvmUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    System.out.printf("Serving http://%s:%d/ with %s%n", options.host, connector.getLocalPort(),
+        describe(threadPool, options));
+    System.out.printf("Started in %d ms (%d ms since the JVM started)%n", startupMillis,
+        jvmUptimeMillis);
+
+    LoadSheddingFilter shedding = loadSheddingFilter;
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      if (shedding != null) {
+        System.out.printf("Answered %d requests with 503%n", shedding.getShedRequests());
+      }
+      if (threadPool instanceof VirtualThreadPool) {
+        ((VirtualThreadPool) threadPool).shutdown();
+      }
+    }));
+    server.join();
+  }
+
+  private static ThreadPool createThreadPool(LauncherOptions options) {
+    if (options.virtualThreads) {
+      VirtualThreadPool virtualThreadPool = VirtualThreadPool.createIfSupported();
+      if (virtualThreadPool != null) {
+        return virtualThreadPool;
+      }
+      System.out.println("This JDK has no virtual threads, using platform threads instead");
+    }
+    // Jobs that do not fit in the queue are rejected and their connections closed.
+    BlockingArrayQueue<Runnable> queue =
+        new BlockingArrayQueue<>(Math.min(options.queue, 128), 128, options.queue);
+    QueuedThreadPool threadPool =
+        new QueuedThreadPool(options.threads, options.minThreads, 60000, queue);
+    threadPool.setName("portfolio");
+    return threadPool;
+  }
+
+  private static String describe(ThreadPool threadPool, LauncherOptions options) {
+    String limit = options.maxConcurrent > 0
+        ? options.maxConcurrent + " concurrent requests, waiting at most "
+            + options.queueWaitMillis + " ms"
+        : "no limit on concurrent requests";
+    if (threadPool instanceof VirtualThreadPool) {
+      return "virtual threads, " + limit;
+    }
+    return options.minThreads + "-" + options.threads + " threads, a queue of " + options.queue
+        + " jobs, " + limit;
+  }
+}
@@ -0,0 +1,155 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.launcher;
+
+/**
+ * Command line options of the embedded launcher. Options are given as --name=value.
+ */
+final class LauncherOptions {
+
+  static final String USAGE = String.join("\n",
+      "Usage: EmbeddedLauncher --webapp=DIR --classes=DIR [--name=value ...]",
+      "  --webapp=DIR          Directory with the static files (src/main/webapp)",
+      "  --classes=DIR         Directory with the compiled servlets (target/classes)",
+      "  --host=ADDRESS        Address to listen on, 0.0.0.0 for every interface",
+      "                        (default 127.0.0.1)",
+      "  --port=N              HTTP port (default 8080)",
+      "  --threads=N           Most worker threads (default 200)",
+      "  --min-threads=N       Worker threads kept when idle (default 8)",
+      "  --queue=N             Most jobs waiting for a worker thread. Connections whose jobs",
+      "                        do not fit are closed. (default 1000)",
+      "  --acceptors=N         Acceptor threads, -1 for Jetty's default (default -1)",
+      "  --selectors=N         Selector threads, -1 for Jetty's default (default -1)",
+      "  --accept-queue=N      TCP backlog of the server socket, 0 for the OS default",
+      "                        (default 0)",
+      "  --max-concurrent=N    Most requests served at once, 0 for no limit",
+      "                        (default: --threads)",
+      "  --queue-wait=MILLIS   How long a request waits for a slot before the server answers",
+      "                        503 Service Unavailable (default 100)",
+      "  --virtual-threads     Run every request on its own virtual thread, if the JDK has",
+      "                        them. --threads, --min-threads and --queue are then ignored.",
+      "  --user-email=EMAIL    Serve every request as this logged in user (default: logged",
+      "                        out)",
+      "  --admin               Make that user an administrator",
+      "  --datastore-file=FILE Keep Datastore in FILE between runs (default: in memory)");
+
+  String webapp = null;
+  String classes = null;
+  String host = "127.0.0.1";
+  int port = 8080;
+  int threads = 200;
+  int minThreads = 8;
+  int queue = 1000;
+  int acceptors = -1;
+  int selectors = -1;
+  int acceptQueue = 0;
+  int maxConcurrent = -1; // --threads when not set.
+  long queueWaitMillis = 100;
+  boolean virtualThreads = false;
+  String userEmail = null;
+  boolean admin = false;
+  String datastoreFile = null;
+
+  /**
+   * Parses the command line arguments. Throws IllegalArgumentException if an argument is invalid.
+   */
+  static LauncherOptions parse(String[] args) {
+    LauncherOptions options = new LauncherOptions();
+    for (String arg : args) {
+      if (!arg.startsWith("--")) {
+        throw new IllegalArgumentException("Expected --name=value: " + arg);
+      }
+      int equals = arg.indexOf('=');
+      String name = equals < 0 ? arg.substring(2) : arg.substring(2, equals);
+      String value = equals < 0 ? null : arg.substring(equals + 1);
+      try {
+        options.set(name, value);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid number for --" + name + ": " + value);
+      }
+    }
+
+    if (options.webapp == null || options.classes == null) {
+      throw new IllegalArgumentException("--webapp and --classes are required");
+    }
+    if (options.maxConcurrent < 0) {
+      options.maxConcurrent = options.threads;
+    }
+    if (options.threads <= 0 || options.minThreads < 0 || options.minThreads > options.threads
+        || options.queue <= 0) {
+      throw new IllegalArgumentException(
+          "Need 0 <= --min-threads <= --threads, with --threads and --queue positive");
+    }
+    return options;
+  }
+
+  private void set(String name, String value) {
+    if (value == null && !name.equals("virtual-threads") && !name.equals("admin")) {
+      throw new IllegalArgumentException("Expected --" + name + "=value");
+    }
+    switch (name) {
+      case "webapp":
+        webapp = value;
+        break;
+      case "classes":
+        classes = value;
+        break;
+      case "host":
+        host = value;
+        break;
+      case "port":
+        port = Integer.parseInt(value);
+        break;
+      case "threads":
+        threads = Integer.parseInt(value);
+        break;
+      case "min-threads":
+        minThreads = Integer.parseInt(value);
+        break;
+      case "queue":
+        queue = Integer.parseInt(value);
+        break;
+      case "acceptors":
+        acceptors = Integer.parseInt(value);
+        break;
+      case "selectors":
+        selectors = Integer.parseInt(value);
+        break;
+      case "accept-queue":
+        acceptQueue = Integer.parseInt(value);
+        break;
+      case "max-concurrent":
+        maxConcurrent = Integer.parseInt(value);
+        break;
+      case "queue-wait":
+        queueWaitMillis = Long.parseLong(value);
+        break;
+      case "virtual-threads":
+        virtualThreads = value == null || Boolean.parseBoolean(value);
+        break;
+      case "user-email":
+        userEmail = value;
+        break;
+      case "admin":
+        admin = value == null || Boolean.parseBoolean(value);
+        break;
+      case "datastore-file":
+        datastoreFile = value;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown option: --" + name);
+    }
+  }
+}
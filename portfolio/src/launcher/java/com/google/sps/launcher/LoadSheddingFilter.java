@@ -0,0 +1,83 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.launcher;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Limits the number of requests served at once. A request that cannot start within the maximum
+ * wait is answered right away with 503 Service Unavailable and a Retry-After header. Under
+ * overload the server keeps serving the requests it has accepted quickly, instead of serving
+ * every request slowly.
+ */
+final class LoadSheddingFilter implements Filter {
+
+  private final Semaphore permits;
+  private final long maxWaitMillis;
+  private final LongAdder shedRequests = new LongAdder();
+
+  LoadSheddingFilter(int maxConcurrentRequests, long maxWaitMillis) {
+    this.permits = new Semaphore(maxConcurrentRequests);
+    this.maxWaitMillis = maxWaitMillis;
+  }
+
+  /**
+   * Returns the number of requests answered with 503 so far.
+   */
+  long getShedRequests() {
+    return shedRequests.sum();
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) {}
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      shedRequests.increment();
+      HttpServletResponse httpResponse = (HttpServletResponse) response;
+      httpResponse.setHeader("Retry-After", "1");
+      httpResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      return;
+    }
+
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      permits.release();
+    }
+  }
+
+  @Override
+  public void destroy() {}
+}
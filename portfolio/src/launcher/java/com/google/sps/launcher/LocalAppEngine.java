@@ -0,0 +1,154 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.launcher;
+
+import com.google.appengine.tools.development.testing.LocalBlobstoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.appengine.tools.development.testing.LocalTaskQueueTestConfig;
+import com.google.appengine.tools.development.testing.LocalUserServiceTestConfig;
+import com.google.apphosting.api.ApiProxy;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * The in-memory App Engine services of appengine-testing: Datastore, Users, Blobstore and Task
+ * Queue. App Engine API calls only work on threads with an App Engine environment, so the filter
+ * of this class gives each request thread one.
+ *
+ * <p>Tasks are queued but never run, since they would be sent to the App Engine dev server.
+ *
+ * <p>Like App Engine, the filter removes the X-AppEngine-* headers from incoming requests, so a
+ * client cannot pass itself off as the Task Queue with X-AppEngine-QueueName.
+ */
+final class LocalAppEngine extends LocalServiceTestHelper implements Filter {
+
+  /** The UserService reads the id of the logged in user from this environment attribute. */
+  private static final String USER_ID_KEY =
+      "com.google.appengine.api.users.UserService.user_id_key";
+
+  private LocalAppEngine(LauncherOptions options) {
+    super(datastoreConfig(options),
+        new LocalUserServiceTestConfig(),
+        new LocalBlobstoreServiceTestConfig(),
+        new LocalTaskQueueTestConfig()
+            .setQueueXmlPath(new File(options.webapp, "WEB-INF/queue.xml").getPath())
+            .setDisableAutoTaskExecution(true));
+    if (options.userEmail != null) {
+      String userId = Long.toString(options.userEmail.hashCode() & 0xFFFFFFFFL);
+      setEnvIsLoggedIn(true);
+      setEnvEmail(options.userEmail);
+      setEnvAuthDomain("gmail.com");
+      setEnvIsAdmin(options.admin);
+      setEnvAttributes(Collections.singletonMap(USER_ID_KEY, userId));
+    }
+  }
+
+  /**
+   * Starts the services and gives the current thread an App Engine environment.
+   */
+  static LocalAppEngine start(LauncherOptions options) {
+    LocalAppEngine appEngine = new LocalAppEngine(options);
+    appEngine.setUp();
+    return appEngine;
+  }
+
+  private static LocalDatastoreServiceTestConfig datastoreConfig(LauncherOptions options) {
+    LocalDatastoreServiceTestConfig config = new LocalDatastoreServiceTestConfig();
+    if (options.datastoreFile == null) {
+      return config.setNoStorage(true);
+    }
+    return config.setNoStorage(false).setBackingStoreLocation(options.datastoreFile);
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) {}
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    ApiProxy.setEnvironmentForCurrentThread(newEnvironment());
+    try {
+      chain.doFilter(new ExternalRequest((HttpServletRequest) request), response);
+    } finally {
+      ApiProxy.clearEnvironmentForCurrentThread();
+    }
+  }
+
+  @Override
+  public void destroy() {}
+
+  /**
+   * A request without the headers that App Engine only sets on requests it sends itself.
+   */
+  private static final class ExternalRequest extends HttpServletRequestWrapper {
+
+    private static final String APP_ENGINE_HEADER_PREFIX = "x-appengine-";
+
+    ExternalRequest(HttpServletRequest request) {
+      super(request);
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return isAppEngineHeader(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+      return isAppEngineHeader(name)
+          ? Collections.<String>emptyEnumeration()
+          : super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+      List<String> names = new ArrayList<>();
+      for (String name : Collections.list(super.getHeaderNames())) {
+        if (!isAppEngineHeader(name)) {
+          names.add(name);
+        }
+      }
+      return Collections.enumeration(names);
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+      return isAppEngineHeader(name) ? -1 : super.getDateHeader(name);
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+      return isAppEngineHeader(name) ? -1 : super.getIntHeader(name);
+    }
+
+    private static boolean isAppEngineHeader(String name) {
+      return name.toLowerCase(Locale.ROOT).startsWith(APP_ENGINE_HEADER_PREFIX);
+    }
+  }
+}
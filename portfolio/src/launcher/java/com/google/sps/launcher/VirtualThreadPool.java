@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.launcher;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * Jetty ThreadPool that runs every job on a new virtual thread. Virtual threads need JDK 21 or
+ * later, and the portfolio compiles for Java 8, so the executor is created by reflection.
+ *
+ * <p>There is no queue: a job starts as soon as it is submitted, and LoadSheddingFilter is what
+ * limits the number of concurrent requests.
+ */
+final class VirtualThreadPool implements ThreadPool {
+
+  private final ExecutorService executor;
+  private final AtomicInteger runningJobs = new AtomicInteger();
+
+  private VirtualThreadPool(ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Returns a new VirtualThreadPool, or null if the JDK does not have virtual threads.
+   */
+  static VirtualThreadPool createIfSupported() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return new VirtualThreadPool((ExecutorService) factory.invoke(null));
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public void execute(Runnable job) {
+    executor.execute(() -> {
+      runningJobs.incrementAndGet();
+      try {
+        job.run();
+      } finally {
+        runningJobs.decrementAndGet();
+      }
+    });
+  }
+
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Override
+  public void join() throws InterruptedException {
+    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public int getThreads() {
+    return runningJobs.get();
+  }
+
+  @Override
+  public int getIdleThreads() {
+    return 0;
+  }
+
+  @Override
+  public boolean isLowOnThreads() {
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "virtual threads";
+  }
+}
@@ -0,0 +1,138 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.ShortBlob;
+import com.google.appengine.api.datastore.Transaction;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.ConcurrentModificationException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Converts the UserService ids of comment authors to opaque handles and back. Comments are public,
+ * so their JSON carries the handle of the author instead of the id, and /data?author= takes the
+ * handle.
+ *
+ * <p>A handle is the id encrypted with AES under a key stored in a "Secret" entity, which is
+ * created the first time a handle is needed. Every instance uses the same key, so an author has a
+ * single handle and any instance can turn it back into the id. The encryption is deterministic on
+ * purpose: equal ids must give equal handles.
+ */
+public final class AuthorHandles {
+
+  private static final Key SECRET_KEY = KeyFactory.createKey("Secret", "author-handles");
+  private static final int KEY_BYTES = 16;
+  private static final String TRANSFORMATION = "AES/ECB/PKCS5Padding";
+
+  private static volatile SecretKeySpec key = null;
+
+  private AuthorHandles() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the handle of the author with authorId, or null if authorId is null.
+   */
+  public static String toHandle(String authorId) {
+    if (authorId == null) {
+      return null;
+    }
+    byte[] encrypted = crypt(Cipher.ENCRYPT_MODE, authorId.getBytes(StandardCharsets.UTF_8));
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(encrypted);
+  }
+
+  /**
+   * Returns the author id of handle, or null if handle was not returned by toHandle.
+   */
+  public static String toAuthorId(String handle) {
+    try {
+      byte[] encrypted = Base64.getUrlDecoder().decode(handle);
+      return new String(crypt(Cipher.DECRYPT_MODE, encrypted), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      // Not Base64, or not a whole number of AES blocks with valid padding.
+      return null;
+    }
+  }
+
+  private static byte[] crypt(int mode, byte[] input) {
+    try {
+      Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+      cipher.init(mode, getKey());
+      return cipher.doFinal(input);
+    } catch (GeneralSecurityException e) {
+      if (mode == Cipher.DECRYPT_MODE) {
+        throw new IllegalArgumentException("Invalid handle", e);
+      }
+      // Every Java platform is required to support AES/ECB/PKCS5Padding.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static SecretKeySpec getKey() {
+    SecretKeySpec current = key;
+    if (current == null) {
+      synchronized (AuthorHandles.class) {
+        if (key == null) {
+          key = new SecretKeySpec(loadOrCreateKey(), "AES");
+        }
+        current = key;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Reads the key from Datastore, creating it in a transaction if it does not exist yet.
+   */
+  private static byte[] loadOrCreateKey() {
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    Transaction transaction = datastore.beginTransaction();
+    try {
+      Entity entity;
+      try {
+        entity = datastore.get(transaction, SECRET_KEY);
+      } catch (EntityNotFoundException e) {
+        byte[] bytes = new byte[KEY_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        entity = new Entity(SECRET_KEY);
+        entity.setUnindexedProperty("key", new ShortBlob(bytes));
+        datastore.put(transaction, entity);
+      }
+      transaction.commit();
+      return ((ShortBlob) entity.getProperty("key")).getBytes();
+    } catch (ConcurrentModificationException e) {
+      // Another instance created the key at the same time, so read the one it stored.
+      try {
+        return ((ShortBlob) datastore.get(SECRET_KEY).getProperty("key")).getBytes();
+      } catch (EntityNotFoundException notFound) {
+        throw new IllegalStateException("Author handle key was not stored", notFound);
+      }
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+    }
+  }
+}
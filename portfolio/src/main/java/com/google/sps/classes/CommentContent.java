@@ -0,0 +1,126 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.Blob;
+import com.google.appengine.api.datastore.Entity;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Class that decides how the content of a comment is stored in Datastore. Short comments are
+ * stored inline in the "content" property. Long comments only keep a preview in "content", and
+ * the full body is compressed into the unindexed "fullContent" property, so that list queries
+ * and their JSON responses stay small.
+ */
+public final class CommentContent {
+
+  /** Comments longer than this number of characters are stored compressed. */
+  public static final int INLINE_LIMIT = 500;
+
+  /** Number of characters kept inline as a preview of a compressed comment. */
+  public static final int PREVIEW_LENGTH = 280;
+
+  private CommentContent() {
+    // Disallow instances.
+  }
+
+  /**
+   * Sets the content properties of a comment entity, compressing the content if it is longer than
+   * INLINE_LIMIT.
+   */
+  public static void setContent(Entity commentEntity, String content) {
+    if (content == null || content.length() <= INLINE_LIMIT) {
+      commentEntity.setProperty("content", content);
+      commentEntity.setProperty("truncated", false);
+      return;
+    }
+
+    commentEntity.setProperty("content", getPreview(content));
+    commentEntity.setUnindexedProperty("fullContent", new Blob(compress(content)));
+    commentEntity.setProperty("truncated", true);
+  }
+
+  /**
+   * Returns true if only a preview of the comment is stored in the "content" property.
+   * Comments stored before compression was introduced have no "truncated" property.
+   */
+  public static boolean isTruncated(Entity commentEntity) {
+    return Boolean.TRUE.equals(commentEntity.getProperty("truncated"));
+  }
+
+  /**
+   * Returns the full content of a comment entity, decompressing it if needed.
+   */
+  public static String getFullContent(Entity commentEntity) {
+    if (!isTruncated(commentEntity)) {
+      return (String) commentEntity.getProperty("content");
+    }
+    Blob fullContent = (Blob) commentEntity.getProperty("fullContent");
+    return decompress(fullContent.getBytes());
+  }
+
+  /**
+   * Returns the first PREVIEW_LENGTH characters of content, without splitting a surrogate pair.
+   */
+  static String getPreview(String content) {
+    int end = PREVIEW_LENGTH;
+    if (Character.isHighSurrogate(content.charAt(end - 1))) {
+      end--;
+    }
+    return content.substring(0, end);
+  }
+
+  /**
+   * Compresses a String encoded in UTF-8 with DEFLATE.
+   */
+  static byte[] compress(String content) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try (OutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+      out.write(content.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      // Writing to a ByteArrayOutputStream cannot fail.
+      throw new IllegalStateException(e);
+    } finally {
+      deflater.end();
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decompresses bytes produced by compress back into a String.
+   */
+  static String decompress(byte[] compressed) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(compressed.length * 4);
+    try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Comment content is not valid compressed data", e);
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,57 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import java.util.function.Supplier;
+
+/**
+ * Returns the DatastoreService used by the servlets. In production this is the one from
+ * DatastoreServiceFactory. Benchmarks and load tests can replace it, for example with a
+ * DatastoreService that injects latency and failures.
+ */
+public final class DatastoreProvider {
+
+  private static final Supplier<DatastoreService> DEFAULT_SUPPLIER =
+      DatastoreServiceFactory::getDatastoreService;
+
+  private static volatile Supplier<DatastoreService> supplier = DEFAULT_SUPPLIER;
+
+  private DatastoreProvider() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the DatastoreService to use for the current request.
+   */
+  public static DatastoreService getDatastoreService() {
+    return supplier.get();
+  }
+
+  /**
+   * Makes getDatastoreService return the services created by newSupplier, until reset is called.
+   */
+  public static void setSupplier(Supplier<DatastoreService> newSupplier) {
+    supplier = newSupplier;
+  }
+
+  /**
+   * Makes getDatastoreService return the services of DatastoreServiceFactory again.
+   */
+  public static void reset() {
+    supplier = DEFAULT_SUPPLIER;
+  }
+}
@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Thread-safe set of Strings that forgets each element some time after it was added. The set keeps
+ * at most maxSize elements: when it is full, the oldest elements are forgotten first.
+ */
+public final class ExpiringSet {
+
+  private final int maxSize;
+  private final long timeToLiveMillis;
+
+  // The live entry of each element, and every entry in the order it was added. An element added
+  // again after remove() has a new entry, and its old one is dropped from the queue without
+  // touching the map.
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+
+  public ExpiringSet(int maxSize, long timeToLiveMillis) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.timeToLiveMillis = timeToLiveMillis;
+  }
+
+  /**
+   * Adds element to the set. Returns true if it was added, or false if the set already had it and
+   * it has not expired yet.
+   */
+  public boolean add(String element) {
+    long now = System.currentTimeMillis();
+    Entry newEntry = new Entry(element, now + timeToLiveMillis);
+    Entry entry = entries.compute(element, (key, currentEntry) -> {
+      if (currentEntry != null && currentEntry.expiryTime > now) {
+        return currentEntry;
+      }
+      return newEntry;
+    });
+
+    boolean added = entry == newEntry;
+    if (added) {
+      insertionOrder.add(newEntry);
+      evict(now);
+    }
+    return added;
+  }
+
+  /**
+   * Removes element from the set, so adding it again succeeds.
+   */
+  public void remove(String element) {
+    // The entry stays in insertionOrder until it is evicted, which is harmless.
+    entries.remove(element);
+  }
+
+  /**
+   * Returns the number of elements in the set, including expired ones not evicted yet.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Forgets the oldest entries while they have expired, were replaced, or the set is over maxSize.
+   * Evictions are serialized, so the entry polled is always the one peeked at.
+   */
+  private void evict(long now) {
+    synchronized (insertionOrder) {
+      Entry oldest;
+      while ((oldest = insertionOrder.peek()) != null) {
+        boolean live = entries.get(oldest.element) == oldest;
+        if (live && oldest.expiryTime > now && entries.size() <= maxSize) {
+          return;
+        }
+        insertionOrder.poll();
+        // Only remove the mapping if the element was not added again since.
+        entries.remove(oldest.element, oldest);
+      }
+    }
+  }
+
+  /**
+   * An element with the time it expires. Entries are compared by identity, so an old entry never
+   * matches the entry of the same element added again, even with the same expiry time.
+   */
+  private static final class Entry {
+    final String element;
+    final long expiryTime;
+
+    Entry(String element, long expiryTime) {
+      this.element = element;
+      this.expiryTime = expiryTime;
+    }
+  }
+}
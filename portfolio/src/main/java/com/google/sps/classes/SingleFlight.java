@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent reads. The first caller with a key runs the read, and callers
+ * that ask for the same key while it is running wait for it and share its result or exception.
+ * Nothing is cached: once the read finishes, the next caller runs a new one.
+ *
+ * <p>A coalesced read may have started just before the caller arrived, so it can miss a write that
+ * finished while it was running. Only use it for reads that can tolerate that, and only share
+ * results that are not modified by the callers.
+ *
+ * <p>appengine-web.xml sets threadsafe to false, so on App Engine an instance serves one request
+ * at a time and there is never a concurrent read to share. Reads are only coalesced where requests
+ * run concurrently: in the embedded launcher (mvn -P launcher), or if threadsafe is enabled.
+ *
+ * <p>Every instance counts its calls and how many of them were coalesced. The counts of all
+ * instances are listed by SingleFlightStatsServlet.
+ */
+public final class SingleFlight<K, V> {
+
+  private static final List<SingleFlight<?, ?>> INSTANCES = new CopyOnWriteArrayList<>();
+
+  private final String name;
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder coalescedCalls = new LongAdder();
+
+  private SingleFlight(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns a new SingleFlight whose counts are listed under name.
+   */
+  public static <K, V> SingleFlight<K, V> create(String name) {
+    SingleFlight<K, V> singleFlight = new SingleFlight<>(name);
+    INSTANCES.add(singleFlight);
+    return singleFlight;
+  }
+
+  /**
+   * Returns every SingleFlight created so far.
+   */
+  public static List<SingleFlight<?, ?>> getInstances() {
+    return INSTANCES;
+  }
+
+  /**
+   * Returns the result of read, or of the read already running for key. Exceptions thrown by the
+   * read are rethrown to every caller that shares it.
+   */
+  public V execute(K key, Supplier<V> read) {
+    calls.increment();
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+    if (running != null) {
+      coalescedCalls.increment();
+      return await(running);
+    }
+
+    try {
+      V result = read.get();
+      future.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, future);
+    }
+  }
+
+  private static <V> V await(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the number of calls to execute.
+   */
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  /**
+   * Returns the number of calls that shared a read started by another call.
+   */
+  public long getCoalescedCalls() {
+    return coalescedCalls.sum();
+  }
+
+  /**
+   * Returns the fraction of calls that shared a read started by another call, or 0 if there were
+   * no calls.
+   */
+  public double getCoalescingRatio() {
+    long callCount = getCalls();
+    return callCount == 0 ? 0 : (double) getCoalescedCalls() / callCount;
+  }
+}
@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.classes;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Transaction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ConcurrentModificationException;
+
+/**
+ * Detects repeated submissions of the same comment, such as a double click on the submit button
+ * or a retry of the browser, so they can be dropped before any other work is done.
+ *
+ * <p>Recent submissions are remembered per instance in an ExpiringSet. If
+ * sps.datastoreIdempotencyKeys is set in appengine-web.xml, they are also recorded as
+ * "SubmissionKey" entities, which catches duplicates that reach different instances at the cost
+ * of one transaction per submission.
+ */
+public final class SubmissionDeduplicator {
+
+  /** Time during which a repeated submission is considered a duplicate. */
+  private static final long WINDOW_MILLIS = 30 * 1000;
+
+  private static final int MAX_REMEMBERED_SUBMISSIONS = 10000;
+
+  private static final boolean USE_DATASTORE_KEYS =
+      Boolean.getBoolean("sps.datastoreIdempotencyKeys");
+
+  private static final ExpiringSet recentSubmissions =
+      new ExpiringSet(MAX_REMEMBERED_SUBMISSIONS, WINDOW_MILLIS);
+
+  private SubmissionDeduplicator() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns a hash that identifies a submission by its author, content and image. imageHash is the
+   * MD5 hash Blobstore computed for the uploaded image, or null if there is none.
+   */
+  public static String hash(String userId, String content, String imageHash) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+    // Separate the fields so that moving characters between them changes the hash.
+    for (String field : new String[] {userId, content, imageHash}) {
+      digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest.digest()) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Records the submission with hash. Returns true if it is the first one in the window, or false
+   * if it is a duplicate that should be dropped. If the Datastore check fails, the submission is
+   * forgotten before the exception is thrown, so a retry of the same submission is not dropped.
+   */
+  public static boolean recordIfNew(String hash) {
+    if (!recentSubmissions.add(hash)) {
+      return false;
+    }
+    if (USE_DATASTORE_KEYS) {
+      try {
+        return recordInDatastoreIfNew(hash);
+      } catch (RuntimeException e) {
+        recentSubmissions.remove(hash);
+        // A commit that timed out may still have stored the key.
+        try {
+          DatastoreService datastore = DatastoreProvider.getDatastoreService();
+          datastore.delete(KeyFactory.createKey("SubmissionKey", hash));
+        } catch (RuntimeException deleteFailure) {
+          e.addSuppressed(deleteFailure);
+        }
+        throw e;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Forgets the submission with hash, so it can be submitted again. Used when storing the
+   * submission failed.
+   */
+  public static void forget(String hash) {
+    recentSubmissions.remove(hash);
+    if (USE_DATASTORE_KEYS) {
+      DatastoreService datastore = DatastoreProvider.getDatastoreService();
+      datastore.delete(KeyFactory.createKey("SubmissionKey", hash));
+    }
+  }
+
+  /**
+   * Creates a "SubmissionKey" entity named hash in a transaction, unless one that has not expired
+   * already exists. Returns true if the entity was created.
+   */
+  private static boolean recordInDatastoreIfNew(String hash) {
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    Key key = KeyFactory.createKey("SubmissionKey", hash);
+    long now = System.currentTimeMillis();
+
+    Transaction transaction = datastore.beginTransaction();
+    try {
+      try {
+        Entity existing = datastore.get(transaction, key);
+        if ((long) existing.getProperty("expiresAt") > now) {
+          return false;
+        }
+      } catch (EntityNotFoundException e) {
+        // First submission with this hash.
+      }
+
+      Entity entity = new Entity(key);
+      entity.setUnindexedProperty("expiresAt", now + WINDOW_MILLIS);
+      datastore.put(transaction, entity);
+      transaction.commit();
+      return true;
+    } catch (ConcurrentModificationException e) {
+      // Another instance recorded the same submission at the same time.
+      return false;
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+    }
+  }
+}
@@ -15,31 +15,106 @@
 package com.google.sps.classes;
 
 import com.google.appengine.api.datastore.DatastoreService;
-import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.PreparedQuery;
-import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.users.UserService;
+import com.google.appengine.api.users.UserServiceFactory;
+import com.google.sps.data.Comment;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
 
 /**
  * Class with utility functions.
  */
 public final class Utils {
 
+  /**
+   * If true, comments are listed with the current nickname of their author instead of the nickname
+   * copied into the comment when it was posted. Set in appengine-web.xml.
+   */
+  private static final boolean RESOLVE_NICKNAMES_AT_READ_TIME =
+      Boolean.getBoolean("sps.resolveNicknamesAtReadTime");
+
   /**
    * Returns the nickname of the user with id, or empty String if the user has not set a nickname.
+   * UserInfo entities are keyed by the user id, so it is read by key, which always sees the last
+   * nickname written. Reads are not shared with concurrent requests for the same reason.
    */
   public static String getUserNickname(String id) {
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-    Query query =
-        new Query("UserInfo")
-            .setFilter(new Query.FilterPredicate("id", Query.FilterOperator.EQUAL, id));
-    PreparedQuery results = datastore.prepare(query);
-    Entity entity = results.asSingleEntity();
-    if (entity == null) {
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    try {
+      Entity entity = datastore.get(KeyFactory.createKey("UserInfo", id));
+      return (String) entity.getProperty("nickname");
+    } catch (EntityNotFoundException e) {
       return "";
     }
-    String nickname = (String) entity.getProperty("nickname");
-    return nickname;
+  }
+
+  /**
+   * Converts entities of kind "Comment" into Comments, keeping their order. Long comments only
+   * include their preview. If nicknames are resolved at read time, the current nickname of every
+   * author in the list is read with a single batch get, instead of the nickname copied into each
+   * comment.
+   */
+  public static List<Comment> entitiesToComments(Iterable<Entity> entities) {
+    Map<Key, Entity> users = Collections.emptyMap();
+    if (RESOLVE_NICKNAMES_AT_READ_TIME) {
+      Set<Key> userKeys = new HashSet<>();
+      for (Entity entity : entities) {
+        String authorId = (String) entity.getProperty("authorId");
+        if (authorId != null) {
+          userKeys.add(KeyFactory.createKey("UserInfo", authorId));
+        }
+      }
+      DatastoreService datastore = DatastoreProvider.getDatastoreService();
+      users = datastore.get(userKeys);
+    }
+
+    List<Comment> comments = new ArrayList<>();
+    for (Entity entity : entities) {
+      String nickname = (String) entity.getProperty("nickname");
+      String authorId = (String) entity.getProperty("authorId");
+      if (authorId != null) {
+        // Comments of users that were deleted keep the copied nickname.
+        Entity user = users.get(KeyFactory.createKey("UserInfo", authorId));
+        if (user != null) {
+          nickname = (String) user.getProperty("nickname");
+        }
+      }
+      comments.add(entityToComment(entity, nickname));
+    }
+    return comments;
+  }
+
+  private static Comment entityToComment(Entity entity, String nickname) {
+    long id = entity.getKey().getId();
+    // The raw author id stays on the server, see AuthorHandles.
+    String author = AuthorHandles.toHandle((String) entity.getProperty("authorId"));
+    String content = (String) entity.getProperty("content");
+    boolean truncated = CommentContent.isTruncated(entity);
+    String imageUrl = (String) entity.getProperty("imageUrl");
+    long timestamp = (long) entity.getProperty("timestamp");
+
+    return new Comment(id, author, nickname, content, truncated, imageUrl, timestamp);
+  }
+
+  /**
+   * Returns true if the request was sent by a Task Queue or by a logged in administrator of the
+   * app. Task Queue requests are the only ones that can carry the X-AppEngine-QueueName header.
+   */
+  public static boolean isTaskQueueOrAdminRequest(HttpServletRequest request) {
+    if (request.getHeader("X-AppEngine-QueueName") != null) {
+      return true;
+    }
+    UserService userService = UserServiceFactory.getUserService();
+    return userService.isUserLoggedIn() && userService.isUserAdmin();
   }
 }
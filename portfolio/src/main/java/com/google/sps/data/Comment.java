@@ -14,22 +14,100 @@
 
 package com.google.sps.data;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
 /**
  * A comment from user input.
  */
 public final class Comment {
 
   private final long id;
+  private final String author; // Opaque handle of the author from AuthorHandles, or null.
   private final String nickname;
   private final String content;
+  private final boolean truncated; // True if content is only a preview of the full comment.
   private final String imageUrl;
   private final long timestamp;
 
-  public Comment(long id, String nickname, String content, String imageUrl, long timestamp) {
+  public Comment(long id, String author, String nickname, String content, boolean truncated,
+      String imageUrl, long timestamp) {
     this.id = id;
+    this.author = author;
     this.nickname = nickname;
     this.content = content;
+    this.truncated = truncated;
     this.imageUrl = imageUrl;
     this.timestamp = timestamp;
   }
+
+  /**
+   * Converts comments to and from JSON without reflection. The JSON is the same as Gson's
+   * reflective output: fields in declaration order, with null fields left out.
+   */
+  public static final class JsonAdapter extends TypeAdapter<Comment> {
+
+    @Override
+    public void write(JsonWriter out, Comment comment) throws IOException {
+      out.beginObject();
+      out.name("id").value(comment.id);
+      out.name("author").value(comment.author);
+      out.name("nickname").value(comment.nickname);
+      out.name("content").value(comment.content);
+      out.name("truncated").value(comment.truncated);
+      out.name("imageUrl").value(comment.imageUrl);
+      out.name("timestamp").value(comment.timestamp);
+      out.endObject();
+    }
+
+    @Override
+    public Comment read(JsonReader in) throws IOException {
+      long id = 0;
+      String author = null;
+      String nickname = null;
+      String content = null;
+      boolean truncated = false;
+      String imageUrl = null;
+      long timestamp = 0;
+
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "id":
+            id = in.nextLong();
+            break;
+          case "author":
+            author = in.nextString();
+            break;
+          case "nickname":
+            nickname = in.nextString();
+            break;
+          case "content":
+            content = in.nextString();
+            break;
+          case "truncated":
+            truncated = in.nextBoolean();
+            break;
+          case "imageUrl":
+            imageUrl = in.nextString();
+            break;
+          case "timestamp":
+            timestamp = in.nextLong();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new Comment(id, author, nickname, content, truncated, imageUrl, timestamp);
+    }
+  }
 }
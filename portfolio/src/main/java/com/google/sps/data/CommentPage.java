@@ -0,0 +1,31 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.List;
+
+/**
+ * A page of comments, with the cursor used to request the next page.
+ */
+public final class CommentPage {
+
+  private final List<Comment> comments;
+  private final String nextCursor; // Web-safe Datastore cursor, or null on the last page.
+
+  public CommentPage(List<Comment> comments, String nextCursor) {
+    this.comments = comments;
+    this.nextCursor = nextCursor;
+  }
+}
@@ -0,0 +1,36 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+/**
+ * The state of the Java Flight Recorder recordings of an instance.
+ */
+public final class ProfilingStatus {
+
+  private final boolean available; // False if the JVM has no Java Flight Recorder.
+  private final String recordingState; // State of the on-demand recording, or null if none.
+  private final boolean continuous; // True if the continuous recording is running.
+  private final long sloMillis;
+  private final boolean sloDumpAvailable; // True if a dump was taken after an SLO breach.
+
+  public ProfilingStatus(boolean available, String recordingState, boolean continuous,
+      long sloMillis, boolean sloDumpAvailable) {
+    this.available = available;
+    this.recordingState = recordingState;
+    this.continuous = continuous;
+    this.sloMillis = sloMillis;
+    this.sloDumpAvailable = sloDumpAvailable;
+  }
+}
@@ -0,0 +1,33 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+/**
+ * The counts of a SingleFlight.
+ */
+public final class SingleFlightStats {
+
+  private final String name;
+  private final long calls;
+  private final long coalescedCalls;
+  private final double coalescingRatio;
+
+  public SingleFlightStats(String name, long calls, long coalescedCalls, double coalescingRatio) {
+    this.name = name;
+    this.calls = calls;
+    this.coalescedCalls = coalescedCalls;
+    this.coalescingRatio = coalescingRatio;
+  }
+}
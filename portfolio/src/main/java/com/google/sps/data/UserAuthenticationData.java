@@ -14,6 +14,12 @@
 
 package com.google.sps.data;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
 /**
  * The data used to authenticate a user.
  */
@@ -30,4 +36,56 @@ public final class UserAuthenticationData {
     this.email = email;
     this.nickname = nickname;
   }
+
+  /**
+   * Converts UserAuthenticationData to and from JSON without reflection. The JSON is the same as
+   * Gson's reflective output.
+   */
+  public static final class JsonAdapter extends TypeAdapter<UserAuthenticationData> {
+
+    @Override
+    public void write(JsonWriter out, UserAuthenticationData data) throws IOException {
+      out.beginObject();
+      out.name("loggedIn").value(data.loggedIn);
+      out.name("authenticationUrl").value(data.authenticationUrl);
+      out.name("email").value(data.email);
+      out.name("nickname").value(data.nickname);
+      out.endObject();
+    }
+
+    @Override
+    public UserAuthenticationData read(JsonReader in) throws IOException {
+      boolean loggedIn = false;
+      String authenticationUrl = null;
+      String email = null;
+      String nickname = null;
+
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "loggedIn":
+            loggedIn = in.nextBoolean();
+            break;
+          case "authenticationUrl":
+            authenticationUrl = in.nextString();
+            break;
+          case "email":
+            email = in.nextString();
+            break;
+          case "nickname":
+            nickname = in.nextString();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new UserAuthenticationData(loggedIn, authenticationUrl, email, nickname);
+    }
+  }
 }
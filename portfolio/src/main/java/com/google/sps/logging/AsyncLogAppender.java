@@ -0,0 +1,141 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.logging;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes log entries as one JSON object per line, from a background thread. Request threads only
+ * put entries in a bounded ring buffer and never wait: when the buffer is full the entry is
+ * dropped and counted, and the count is written with the next entry. Only the background thread
+ * writes to the output stream, so request threads never contend on its lock.
+ *
+ * <p>The lines use the field names Cloud Logging reads from structured logs: "severity",
+ * "message" and "time".
+ */
+final class AsyncLogAppender {
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_BATCH = 256;
+
+  private static final AsyncLogAppender INSTANCE = new AsyncLogAppender(System.err);
+
+  private final BlockingQueue<LogEntry> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+  private final AtomicLong dropped = new AtomicLong();
+  private final PrintStream out;
+
+  private AsyncLogAppender(PrintStream out) {
+    this.out = out;
+    Thread writer = new Thread(this::writeEntries, "async-log-appender");
+    writer.setDaemon(true);
+    writer.start();
+    // Write what is left in the buffer when the JVM stops.
+    Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "async-log-appender-flush"));
+  }
+
+  static AsyncLogAppender getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Adds entry to the buffer, or drops it if the buffer is full.
+   */
+  void append(LogEntry entry) {
+    if (!buffer.offer(entry)) {
+      dropped.incrementAndGet();
+    }
+  }
+
+  private void writeEntries() {
+    List<LogEntry> batch = new ArrayList<>(MAX_BATCH);
+    while (true) {
+      try {
+        LogEntry first = buffer.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        buffer.drainTo(batch, MAX_BATCH - 1);
+        write(batch);
+        batch.clear();
+      } catch (InterruptedException e) {
+        return;
+      } catch (RuntimeException e) {
+        // Never let a bad entry stop the logging thread.
+        batch.clear();
+      }
+    }
+  }
+
+  private void flush() {
+    List<LogEntry> remaining = new ArrayList<>();
+    buffer.drainTo(remaining);
+    write(remaining);
+  }
+
+  private synchronized void write(List<LogEntry> entries) {
+    StringBuilder lines = new StringBuilder();
+    for (LogEntry entry : entries) {
+      lines.append(toJson(entry, dropped.getAndSet(0))).append('\n');
+    }
+    out.print(lines);
+    out.flush();
+  }
+
+  static String toJson(LogEntry entry, long droppedEntries) {
+    StringWriter json = new StringWriter();
+    try (JsonWriter writer = new JsonWriter(json)) {
+      writer.beginObject();
+      writer.name("time").value(Instant.ofEpochMilli(entry.timestampMillis).toString());
+      writer.name("severity").value(entry.severity.name());
+      writer.name("logger").value(entry.logger);
+      writer.name("message").value(entry.message);
+      for (int i = 0; i + 1 < entry.fields.length; i += 2) {
+        writer.name(String.valueOf(entry.fields[i]));
+        Object value = entry.fields[i + 1];
+        if (value == null) {
+          writer.nullValue();
+        } else if (value instanceof Number) {
+          writer.value((Number) value);
+        } else if (value instanceof Boolean) {
+          writer.value((Boolean) value);
+        } else {
+          writer.value(value.toString());
+        }
+      }
+      if (entry.suppressed > 0) {
+        writer.name("suppressed").value(entry.suppressed);
+      }
+      if (droppedEntries > 0) {
+        writer.name("dropped").value(droppedEntries);
+      }
+      writer.endObject();
+    } catch (IOException e) {
+      // StringWriter does not throw.
+      throw new AssertionError(e);
+    }
+    return json.toString();
+  }
+}
@@ -0,0 +1,53 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through at most a fixed number of messages per second for one call site, and counts the
+ * messages it drops. The count is attached to the next message that gets through, so the log still
+ * shows how often the call site was hit.
+ */
+final class CallSiteRateLimiter {
+
+  private static final long WINDOW_MILLIS = 1000;
+
+  private final int maxPerSecond;
+  private final AtomicLong window = new AtomicLong(); // Start of the current window.
+  private final AtomicLong count = new AtomicLong(); // Messages let through in the window.
+  private final AtomicLong suppressed = new AtomicLong();
+
+  CallSiteRateLimiter(int maxPerSecond) {
+    this.maxPerSecond = maxPerSecond;
+  }
+
+  /**
+   * Returns -1 if the message must be dropped, or else the number of messages dropped since the
+   * last one that got through.
+   */
+  long tryAcquire(long nowMillis) {
+    long currentWindow = nowMillis - nowMillis % WINDOW_MILLIS;
+    long previousWindow = window.get();
+    if (currentWindow != previousWindow && window.compareAndSet(previousWindow, currentWindow)) {
+      count.set(0);
+    }
+    if (count.incrementAndGet() > maxPerSecond) {
+      suppressed.incrementAndGet();
+      return -1;
+    }
+    return suppressed.getAndSet(0);
+  }
+}
@@ -0,0 +1,39 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.logging;
+
+/**
+ * A log message waiting to be written. It only holds references, so that creating it on a request
+ * thread is cheap. It is formatted as JSON by the appender thread.
+ */
+final class LogEntry {
+
+  final long timestampMillis;
+  final Severity severity;
+  final String logger;
+  final String message;
+  final Object[] fields; // Alternating names and values.
+  final long suppressed; // Messages of the same call site dropped by rate limiting before this one.
+
+  LogEntry(long timestampMillis, Severity severity, String logger, String message, Object[] fields,
+      long suppressed) {
+    this.timestampMillis = timestampMillis;
+    this.severity = severity;
+    this.logger = logger;
+    this.message = message;
+    this.fields = fields;
+    this.suppressed = suppressed;
+  }
+}
@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Logs messages with named fields as JSON lines, without blocking the calling thread. For example
+ *
+ * <pre>
+ *   logger.warning("Could not convert to int", "comment-limit", value);
+ * </pre>
+ *
+ * writes {"time":"...","severity":"WARNING","logger":"...","message":"Could not convert to int",
+ * "comment-limit":"abc"}.
+ *
+ * <p>Each call site, a logger and a message, is limited to MAX_PER_SECOND messages per second, so
+ * a burst of bad requests cannot flood the log. Messages should therefore be constant strings,
+ * with the values that change in the fields.
+ */
+public final class StructuredLogger {
+
+  static final int MAX_PER_SECOND = 10;
+
+  private final String name;
+  private final ConcurrentMap<String, CallSiteRateLimiter> rateLimiters =
+      new ConcurrentHashMap<>();
+
+  private StructuredLogger(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns a logger named after type.
+   */
+  public static StructuredLogger getLogger(Class<?> type) {
+    return new StructuredLogger(type.getName());
+  }
+
+  public void info(String message, Object... fields) {
+    log(Severity.INFO, message, fields);
+  }
+
+  public void warning(String message, Object... fields) {
+    log(Severity.WARNING, message, fields);
+  }
+
+  public void error(String message, Object... fields) {
+    log(Severity.ERROR, message, fields);
+  }
+
+  /**
+   * Logs message with fields, given as alternating names and values.
+   */
+  public void log(Severity severity, String message, Object... fields) {
+    long now = System.currentTimeMillis();
+    CallSiteRateLimiter rateLimiter = rateLimiters.computeIfAbsent(
+        message, key -> new CallSiteRateLimiter(MAX_PER_SECOND));
+    long suppressed = rateLimiter.tryAcquire(now);
+    if (suppressed < 0) {
+      return;
+    }
+    AsyncLogAppender.getInstance().append(
+        new LogEntry(now, severity, name, message, fields, suppressed));
+  }
+}
@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.profiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Starts, stops and dumps Java Flight Recorder recordings, within bounds that keep their cost and
+ * their files small. JFR is part of JDK 11 and later, and of recent JDK 8 builds. On other JVMs
+ * isAvailable returns false and the other methods throw UnsupportedOperationException.
+ */
+public final class FlightRecorder {
+
+  /** Longest on-demand recording. */
+  public static final Duration MAX_DURATION = Duration.ofMinutes(10);
+
+  /** Most data kept by a recording. */
+  public static final long MAX_SIZE_BYTES = 100L * 1024 * 1024;
+
+  /** Time window kept by the continuous recording. */
+  public static final Duration CONTINUOUS_WINDOW = Duration.ofMinutes(5);
+
+  /** Most data kept by the continuous recording. */
+  public static final long CONTINUOUS_MAX_SIZE_BYTES = 50L * 1024 * 1024;
+
+  private static final boolean AVAILABLE = isJfrAvailable();
+
+  private FlightRecorder() {
+    // Disallow instances.
+  }
+
+  public static boolean isAvailable() {
+    return AVAILABLE;
+  }
+
+  /**
+   * Starts an on-demand recording that stops on its own after duration. The duration and size
+   * are capped at MAX_DURATION and MAX_SIZE_BYTES. Throws IllegalStateException if an on-demand
+   * recording is already running.
+   */
+  public static void start(Duration duration, long maxSizeBytes) throws IOException {
+    checkAvailable();
+    if (duration.compareTo(MAX_DURATION) > 0) {
+      duration = MAX_DURATION;
+    }
+    JfrRecordings.start(duration, Math.min(maxSizeBytes, MAX_SIZE_BYTES));
+  }
+
+  /**
+   * Stops the on-demand recording and returns a temporary file with its data, which the caller
+   * must delete. Returns null if no recording was started.
+   */
+  public static File stop() throws IOException {
+    checkAvailable();
+    return JfrRecordings.stop();
+  }
+
+  /**
+   * Returns the state of the on-demand recording, e.g. "RUNNING" or "STOPPED", or null if there is
+   * none.
+   */
+  public static String getRecordingState() {
+    return AVAILABLE ? JfrRecordings.getState() : null;
+  }
+
+  /**
+   * Starts recording continuously, keeping only the last CONTINUOUS_WINDOW. Does nothing if the
+   * continuous recording is already running.
+   */
+  public static void startContinuous() throws IOException {
+    checkAvailable();
+    JfrRecordings.startContinuous(CONTINUOUS_WINDOW, CONTINUOUS_MAX_SIZE_BYTES);
+  }
+
+  public static void stopContinuous() {
+    if (AVAILABLE) {
+      JfrRecordings.stopContinuous();
+    }
+  }
+
+  public static boolean isContinuousRunning() {
+    return AVAILABLE && JfrRecordings.isContinuousRunning();
+  }
+
+  /**
+   * Returns a temporary file with the window kept by the continuous recording, which the caller
+   * must delete. Returns null if the continuous recording is not running.
+   */
+  public static File dumpContinuous() throws IOException {
+    checkAvailable();
+    return JfrRecordings.dumpContinuous();
+  }
+
+  private static void checkAvailable() {
+    if (!AVAILABLE) {
+      throw new UnsupportedOperationException("Java Flight Recorder is not available");
+    }
+  }
+
+  private static boolean isJfrAvailable() {
+    try {
+      Class<?> flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+      return (Boolean) flightRecorder.getMethod("isAvailable").invoke(null);
+    } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.profiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * The Java Flight Recorder recordings of this instance: at most one on-demand recording and one
+ * continuous recording. This is the only class that uses jdk.jfr, so that the rest of the app
+ * still loads on JVMs without it. Only FlightRecorder calls it, after checking that JFR is
+ * available.
+ */
+final class JfrRecordings {
+
+  private static Recording onDemand = null;
+  private static Recording continuous = null;
+
+  private JfrRecordings() {
+    // Disallow instances.
+  }
+
+  /**
+   * Starts an on-demand recording with the "profile" settings, which include method sampling. It
+   * stops on its own after duration, and keeps at most maxSizeBytes of data.
+   */
+  static synchronized void start(Duration duration, long maxSizeBytes) throws IOException {
+    if (onDemand != null && onDemand.getState() == RecordingState.RUNNING) {
+      throw new IllegalStateException("A recording is already running");
+    }
+    close(onDemand);
+    Recording recording = new Recording(getConfiguration("profile"));
+    recording.setName("portfolio-on-demand");
+    recording.setDuration(duration);
+    recording.setMaxSize(maxSizeBytes);
+    recording.setToDisk(true);
+    recording.start();
+    onDemand = recording;
+  }
+
+  /**
+   * Stops the on-demand recording, if it is still running, and writes it to a new temporary file.
+   * Returns null if there is no on-demand recording.
+   */
+  static synchronized File stop() throws IOException {
+    if (onDemand == null) {
+      return null;
+    }
+    if (onDemand.getState() == RecordingState.RUNNING) {
+      onDemand.stop();
+    }
+    try {
+      return dump(onDemand, "recording");
+    } finally {
+      close(onDemand);
+      onDemand = null;
+    }
+  }
+
+  /**
+   * Returns the state of the on-demand recording, e.g. "RUNNING", or null if there is none.
+   */
+  static synchronized String getState() {
+    return onDemand == null ? null : onDemand.getState().name();
+  }
+
+  /**
+   * Starts a continuous recording with the "default" settings, which cost about 1% of CPU. Only
+   * the last maxAge of data, and at most maxSizeBytes, are kept.
+   */
+  static synchronized void startContinuous(Duration maxAge, long maxSizeBytes)
+      throws IOException {
+    if (continuous != null) {
+      return;
+    }
+    Recording recording = new Recording(getConfiguration("default"));
+    recording.setName("portfolio-continuous");
+    recording.setMaxAge(maxAge);
+    recording.setMaxSize(maxSizeBytes);
+    recording.setToDisk(true);
+    recording.start();
+    continuous = recording;
+  }
+
+  static synchronized void stopContinuous() {
+    close(continuous);
+    continuous = null;
+  }
+
+  static synchronized boolean isContinuousRunning() {
+    return continuous != null;
+  }
+
+  /**
+   * Writes the window kept by the continuous recording to a new temporary file, without stopping
+   * it. Returns null if there is no continuous recording.
+   */
+  static synchronized File dumpContinuous() throws IOException {
+    return continuous == null ? null : dump(continuous, "continuous");
+  }
+
+  private static File dump(Recording recording, String name) throws IOException {
+    File file = File.createTempFile("portfolio-" + name + "-", ".jfr");
+    try {
+      recording.dump(file.toPath());
+    } catch (IOException | RuntimeException e) {
+      file.delete();
+      throw e;
+    }
+    return file;
+  }
+
+  private static void close(Recording recording) {
+    if (recording != null) {
+      recording.close();
+    }
+  }
+
+  private static Configuration getConfiguration(String name) throws IOException {
+    try {
+      return Configuration.getConfiguration(name);
+    } catch (ParseException e) {
+      throw new IOException("Invalid JFR configuration " + name, e);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.profiling;
+
+import com.google.sps.logging.StructuredLogger;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Measures the latency of /data requests. When a request is slower than the latency SLO and the
+ * continuous recording is running, the recording is dumped to a file in the background, so the
+ * slow request can be investigated later. At most one dump is taken every DUMP_INTERVAL_MILLIS,
+ * and only the latest one is kept.
+ */
+@WebFilter("/data")
+public class LatencySloFilter implements Filter {
+
+  private static final StructuredLogger logger =
+      StructuredLogger.getLogger(LatencySloFilter.class);
+
+  /** Requests slower than this breach the SLO. Set in appengine-web.xml. */
+  static final long SLO_MILLIS = Long.getLong("sps.profiling.sloMillis", 1000);
+
+  private static final long DUMP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private static final AtomicLong lastDumpMillis = new AtomicLong(0);
+  private static volatile File latestDump = null;
+
+  /** Dumps run on a single background thread, so a slow request does not get any slower. */
+  private static final ExecutorService dumpExecutor = new ThreadPoolExecutor(
+      1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1), runnable -> {
+        Thread thread = new Thread(runnable, "latency-slo-dump");
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.DiscardPolicy());
+
+  /**
+   * Returns the file of the latest dump taken after an SLO breach, or null if there is none.
+   */
+  public static File getLatestDump() {
+    return latestDump;
+  }
+
+  public static long getSloMillis() {
+    return SLO_MILLIS;
+  }
+
+  @Override
+  public void init(FilterConfig filterConfig) {}
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    long startNanos = System.nanoTime();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      if (latencyMillis > SLO_MILLIS && FlightRecorder.isContinuousRunning()) {
+        onBreach(((HttpServletRequest) request).getQueryString(), latencyMillis);
+      }
+    }
+  }
+
+  private static void onBreach(String queryString, long latencyMillis) {
+    long now = System.currentTimeMillis();
+    long last = lastDumpMillis.get();
+    if (now - last < DUMP_INTERVAL_MILLIS || !lastDumpMillis.compareAndSet(last, now)) {
+      return;
+    }
+    logger.warning("Latency SLO breached, dumping the continuous recording",
+        "query", queryString, "latencyMillis", latencyMillis, "sloMillis", SLO_MILLIS);
+    dumpExecutor.execute(() -> {
+      try {
+        File dump = FlightRecorder.dumpContinuous();
+        if (dump == null) {
+          return;
+        }
+        File previous = latestDump;
+        latestDump = dump;
+        if (previous != null) {
+          previous.delete();
+        }
+      } catch (IOException | RuntimeException e) {
+        logger.error("Could not dump the continuous recording", "error", e);
+      }
+    });
+  }
+
+  @Override
+  public void destroy() {}
+}
@@ -0,0 +1,55 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.profiling;
+
+import com.google.sps.logging.StructuredLogger;
+import java.io.IOException;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Starts the continuous recording when the app starts, if it is enabled in appengine-web.xml and
+ * the JVM has Java Flight Recorder, and stops it when the app stops.
+ */
+@WebListener
+public class ProfilingListener implements ServletContextListener {
+
+  private static final StructuredLogger logger =
+      StructuredLogger.getLogger(ProfilingListener.class);
+
+  private static final boolean CONTINUOUS = Boolean.getBoolean("sps.profiling.continuous");
+
+  @Override
+  public void contextInitialized(ServletContextEvent event) {
+    if (!CONTINUOUS) {
+      return;
+    }
+    if (!FlightRecorder.isAvailable()) {
+      logger.warning("Continuous recording is enabled but Java Flight Recorder is not available");
+      return;
+    }
+    try {
+      FlightRecorder.startContinuous();
+    } catch (IOException | RuntimeException e) {
+      logger.error("Could not start the continuous recording", "error", e);
+    }
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {
+    FlightRecorder.stopContinuous();
+  }
+}
@@ -0,0 +1,170 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.search;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.SortDirection;
+import com.google.sps.classes.CommentContent;
+import com.google.sps.classes.DatastoreProvider;
+import com.google.sps.logging.StructuredLogger;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the CommentSearchIndex of this instance in sync with the comments stored in Datastore.
+ *
+ * <p>A new instance builds its index from Datastore once, in the warmup request when App Engine
+ * sends one, or else in the first search. Searches that arrive during the build wait for it, so
+ * they never see a partial index. The snapshot file only survives restarts on the same machine,
+ * like the dev server or the embedded launcher, where it turns the build into a short catch-up.
+ * App Engine instances start without it.
+ */
+public final class CommentIndexer {
+
+  private static final StructuredLogger logger = StructuredLogger.getLogger(CommentIndexer.class);
+
+  /** Minimum time between two catch-up queries, so searches rarely wait on Datastore. */
+  private static final long CATCH_UP_INTERVAL_MILLIS = 5000;
+
+  /**
+   * Comments posted on other instances can arrive with slightly older timestamps than the newest
+   * indexed comment, so catch-up queries start this far before it. Adding a comment twice is a
+   * no-op.
+   */
+  private static final long CATCH_UP_OVERLAP_MILLIS = 10000;
+
+  private static final int CATCH_UP_BATCH_SIZE = 500;
+
+  private static final File SNAPSHOT_FILE =
+      new File(System.getProperty("java.io.tmpdir"), "comment-search-index.bin");
+
+  private static final AtomicLong lastCatchUpMillis = new AtomicLong(0);
+
+  /** Whether the index was built on this instance. Written with the class lock held. */
+  private static volatile boolean built = false;
+
+  private CommentIndexer() {
+    // Disallow instances.
+  }
+
+  /**
+   * Adds a stored entity of kind "Comment" to the search index.
+   */
+  public static void index(Entity commentEntity) {
+    CommentSearchIndex.getInstance().add(
+        commentEntity.getKey().getId(),
+        (String) commentEntity.getProperty("nickname"),
+        CommentContent.getFullContent(commentEntity),
+        (long) commentEntity.getProperty("timestamp"));
+  }
+
+  /**
+   * Indexes a stored entity of kind "Comment" again after its nickname or content changed. Only
+   * the index of this instance is updated.
+   */
+  public static void reindex(Entity commentEntity) {
+    CommentSearchIndex.getInstance().replace(
+        commentEntity.getKey().getId(),
+        (String) commentEntity.getProperty("nickname"),
+        CommentContent.getFullContent(commentEntity),
+        (long) commentEntity.getProperty("timestamp"));
+  }
+
+  /**
+   * Builds the index from Datastore if it was not built on this instance yet, indexing every
+   * comment not restored from the snapshot. Concurrent callers wait for a single build.
+   */
+  public static void ensureBuilt() {
+    if (built) {
+      return;
+    }
+    synchronized (CommentIndexer.class) {
+      if (built) {
+        return;
+      }
+      long start = System.currentTimeMillis();
+      catchUp();
+      lastCatchUpMillis.set(start);
+      built = true;
+      logger.info("Built search index", "comments", CommentSearchIndex.getInstance().size(),
+          "millis", System.currentTimeMillis() - start);
+    }
+  }
+
+  /**
+   * Indexes the comments posted since the last catch-up, including those posted on other
+   * instances, unless a catch-up ran less than CATCH_UP_INTERVAL_MILLIS ago. Waits for the index
+   * to be built first, so the results are never those of an empty index.
+   */
+  public static void catchUpIfStale() {
+    ensureBuilt();
+    long now = System.currentTimeMillis();
+    long last = lastCatchUpMillis.get();
+    if (now - last < CATCH_UP_INTERVAL_MILLIS || !lastCatchUpMillis.compareAndSet(last, now)) {
+      return;
+    }
+    catchUp();
+  }
+
+  private static void catchUp() {
+    long since = CommentSearchIndex.getInstance().getLastTimestamp() - CATCH_UP_OVERLAP_MILLIS;
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    Query query =
+        new Query("Comment")
+            .setFilter(new Query.FilterPredicate(
+                "timestamp", Query.FilterOperator.GREATER_THAN_OR_EQUAL, since))
+            .addSort("timestamp", SortDirection.ASCENDING);
+    for (Entity entity : datastore.prepare(query).asIterable(
+        FetchOptions.Builder.withChunkSize(CATCH_UP_BATCH_SIZE))) {
+      index(entity);
+    }
+  }
+
+  /**
+   * Restores the search index from the snapshot file, if there is one. Must run before the index
+   * is built.
+   */
+  static void loadSnapshot() {
+    if (!SNAPSHOT_FILE.exists()) {
+      return;
+    }
+    try (InputStream in = new FileInputStream(SNAPSHOT_FILE)) {
+      CommentSearchIndex.getInstance().readSnapshot(in);
+    } catch (IOException e) {
+      // The index is rebuilt from Datastore by the first catch-up instead.
+      logger.warning("Could not load search index snapshot", "error", e);
+      CommentSearchIndex.getInstance().clear();
+    }
+  }
+
+  /**
+   * Writes the search index to the snapshot file.
+   */
+  static void saveSnapshot() {
+    try (OutputStream out = new FileOutputStream(SNAPSHOT_FILE)) {
+      CommentSearchIndex.getInstance().writeSnapshot(out);
+    } catch (IOException e) {
+      logger.warning("Could not save search index snapshot", "error", e);
+    }
+  }
+}
@@ -0,0 +1,511 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the nickname and content of comments, ranked with BM25.
+ *
+ * <p>Every indexed comment gets a dense int document id, in the order comments are added. Removed
+ * comments are only marked as removed, so their postings stay until the index is cleared or
+ * rebuilt, and document frequencies can slightly overcount in the meantime.
+ *
+ * <p>The index is safe to use from multiple threads: searches run concurrently and updates are
+ * exclusive.
+ */
+public final class CommentSearchIndex {
+
+  private static final CommentSearchIndex INSTANCE = new CommentSearchIndex();
+
+  // BM25 parameters, using the usual defaults.
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+
+  /** Scores are kept in an array once the matches exceed this fraction of the documents. */
+  private static final int DENSE_SCORES_FRACTION = 16;
+
+  private static final int SNAPSHOT_MAGIC = 0x43534958; // "CSIX"
+  private static final int SNAPSHOT_VERSION = 1;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, PostingList> postings = new HashMap<>();
+  private final Map<Long, Integer> docIdsByCommentId = new HashMap<>();
+  private long[] commentIds = new long[16]; // Indexed by document id.
+  private int[] documentLengths = new int[16]; // Indexed by document id.
+  private BitSet removed = new BitSet();
+  private int documentCount = 0; // Including removed documents.
+  private int liveDocumentCount = 0;
+  private long liveTermCount = 0; // Sum of the lengths of live documents.
+  private long lastTimestamp = 0; // Timestamp of the newest comment added.
+
+  /**
+   * Returns the index shared by every servlet of this instance.
+   */
+  public static CommentSearchIndex getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Adds a comment to the index. Adding a comment that is already indexed does nothing.
+   */
+  public void add(long commentId, String nickname, String content, long timestamp) {
+    List<String> terms = Tokenizer.tokenize(nickname);
+    terms.addAll(Tokenizer.tokenize(content));
+
+    // Count the terms before taking the lock.
+    Map<String, Integer> termFrequencies = countTerms(terms);
+
+    lock.writeLock().lock();
+    try {
+      if (docIdsByCommentId.containsKey(commentId)) {
+        return;
+      }
+      addDocument(commentId, terms.size(), termFrequencies, timestamp);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Indexes a comment again after its nickname or content changed, or adds it if it is not indexed
+   * yet. Searches never miss the comment while it is replaced.
+   */
+  public void replace(long commentId, String nickname, String content, long timestamp) {
+    List<String> terms = Tokenizer.tokenize(nickname);
+    terms.addAll(Tokenizer.tokenize(content));
+    Map<String, Integer> termFrequencies = countTerms(terms);
+
+    lock.writeLock().lock();
+    try {
+      removeDocument(commentId);
+      addDocument(commentId, terms.size(), termFrequencies, timestamp);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static Map<String, Integer> countTerms(List<String> terms) {
+    Map<String, Integer> termFrequencies = new HashMap<>();
+    for (String term : terms) {
+      termFrequencies.merge(term, 1, Integer::sum);
+    }
+    return termFrequencies;
+  }
+
+  /** Must be called with the write lock held. */
+  private void addDocument(long commentId, int length, Map<String, Integer> termFrequencies,
+      long timestamp) {
+    int docId = documentCount++;
+    if (docId == commentIds.length) {
+      commentIds = Arrays.copyOf(commentIds, docId * 2);
+      documentLengths = Arrays.copyOf(documentLengths, docId * 2);
+    }
+    commentIds[docId] = commentId;
+    documentLengths[docId] = length;
+    docIdsByCommentId.put(commentId, docId);
+
+    for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+      postings.computeIfAbsent(entry.getKey(), term -> new PostingList())
+          .add(docId, entry.getValue());
+    }
+
+    liveDocumentCount++;
+    liveTermCount += length;
+    lastTimestamp = Math.max(lastTimestamp, timestamp);
+  }
+
+  /**
+   * Removes a comment from the search results. Removing a comment that is not indexed does nothing.
+   */
+  public void remove(long commentId) {
+    lock.writeLock().lock();
+    try {
+      removeDocument(commentId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Must be called with the write lock held. */
+  private void removeDocument(long commentId) {
+    Integer docId = docIdsByCommentId.remove(commentId);
+    if (docId == null) {
+      return;
+    }
+    removed.set(docId);
+    liveDocumentCount--;
+    liveTermCount -= documentLengths[docId];
+
+    // Once every comment is removed, drop the postings of the removed comments too.
+    if (liveDocumentCount == 0) {
+      clearPostings();
+    }
+  }
+
+  /**
+   * Removes every comment from the index.
+   */
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      clearPostings();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the ids of at most limit comments that match any term of query, the most relevant
+   * first.
+   */
+  public List<Long> search(String query, int limit) {
+    Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+    if (queryTerms.isEmpty() || limit <= 0) {
+      return Collections.emptyList();
+    }
+
+    lock.readLock().lock();
+    try {
+      if (liveDocumentCount == 0) {
+        return Collections.emptyList();
+      }
+
+      List<PostingList> matchedPostings = new ArrayList<>(queryTerms.size());
+      long matchedPostingCount = 0;
+      for (String term : queryTerms) {
+        PostingList postingList = postings.get(term);
+        if (postingList != null) {
+          matchedPostings.add(postingList);
+          matchedPostingCount += postingList.documentFrequency();
+        }
+      }
+
+      // Common terms match a large part of the comments, and then an array with a score per
+      // document is cheaper than hashing every match.
+      ScoreAccumulator scores = matchedPostingCount > documentCount / DENSE_SCORES_FRACTION
+          ? ScoreAccumulator.dense(documentCount)
+          : ScoreAccumulator.sparse();
+      double averageLength = (double) liveTermCount / liveDocumentCount;
+      for (PostingList postingList : matchedPostings) {
+        // Removed documents can make the document frequency larger than the live document count.
+        int documentFrequency = Math.min(postingList.documentFrequency(), liveDocumentCount);
+        double idf = Math.log(1 + (liveDocumentCount - documentFrequency + 0.5)
+            / (documentFrequency + 0.5));
+        postingList.forEach((docId, termFrequency) -> {
+          if (removed.get(docId)) {
+            return;
+          }
+          double lengthNorm = K1 * (1 - B + B * documentLengths[docId] / averageLength);
+          scores.add(docId, idf * termFrequency * (K1 + 1) / (termFrequency + lengthNorm));
+        });
+      }
+
+      return topComments(scores, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of comments that can be returned by search.
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return liveDocumentCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the timestamp of the newest comment added to the index, or 0 if none was added.
+   */
+  public long getLastTimestamp() {
+    lock.readLock().lock();
+    try {
+      return lastTimestamp;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Writes the whole index to out, so it can be restored with readSnapshot without tokenizing every
+   * comment again.
+   */
+  public void writeSnapshot(OutputStream out) throws IOException {
+    lock.readLock().lock();
+    try {
+      DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+      data.writeInt(SNAPSHOT_MAGIC);
+      data.writeInt(SNAPSHOT_VERSION);
+      data.writeLong(lastTimestamp);
+      data.writeInt(documentCount);
+      for (int docId = 0; docId < documentCount; docId++) {
+        data.writeLong(commentIds[docId]);
+        data.writeInt(documentLengths[docId]);
+      }
+      long[] removedWords = removed.toLongArray();
+      data.writeInt(removedWords.length);
+      for (long word : removedWords) {
+        data.writeLong(word);
+      }
+      data.writeInt(postings.size());
+      for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+        data.writeUTF(entry.getKey());
+        entry.getValue().writeTo(data);
+      }
+      data.flush();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the contents of the index with a snapshot written by writeSnapshot. Throws IOException
+   * and leaves the index unchanged if the snapshot is truncated or corrupt.
+   */
+  public void readSnapshot(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+    if (data.readInt() != SNAPSHOT_MAGIC || data.readInt() != SNAPSHOT_VERSION) {
+      throw new IOException("Not a comment search index snapshot");
+    }
+
+    // Read everything before taking the lock, so searches are not blocked on I/O. Arrays grow as
+    // entries arrive, so a corrupt count ends in EOFException instead of a huge allocation.
+    long snapshotTimestamp = data.readLong();
+    int snapshotDocumentCount = readCount(data, "document");
+    long[] snapshotCommentIds = new long[16];
+    int[] snapshotDocumentLengths = new int[16];
+    for (int docId = 0; docId < snapshotDocumentCount; docId++) {
+      if (docId == snapshotCommentIds.length) {
+        snapshotCommentIds = Arrays.copyOf(snapshotCommentIds, docId * 2);
+        snapshotDocumentLengths = Arrays.copyOf(snapshotDocumentLengths, docId * 2);
+      }
+      snapshotCommentIds[docId] = data.readLong();
+      snapshotDocumentLengths[docId] = data.readInt();
+      if (snapshotDocumentLengths[docId] < 0) {
+        throw new IOException("Corrupt snapshot: negative document length");
+      }
+    }
+    int removedWordCount = readCount(data, "removed word");
+    if (removedWordCount > (snapshotDocumentCount + 63) / 64) {
+      throw new IOException("Corrupt snapshot: removed documents past the last document");
+    }
+    long[] removedWords = new long[removedWordCount];
+    for (int i = 0; i < removedWords.length; i++) {
+      removedWords[i] = data.readLong();
+    }
+    BitSet snapshotRemoved = BitSet.valueOf(removedWords);
+    int termCount = readCount(data, "term");
+    Map<String, PostingList> snapshotPostings = new HashMap<>();
+    for (int i = 0; i < termCount; i++) {
+      String term = data.readUTF();
+      PostingList postingList = PostingList.readFrom(data);
+      // Searches index the document arrays with the ids in the postings, so check them now.
+      postingList.validate(snapshotDocumentCount);
+      snapshotPostings.put(term, postingList);
+    }
+
+    lock.writeLock().lock();
+    try {
+      clearPostings();
+      postings.putAll(snapshotPostings);
+      commentIds = snapshotCommentIds;
+      documentLengths = snapshotDocumentLengths;
+      removed = snapshotRemoved;
+      documentCount = snapshotDocumentCount;
+      for (int docId = 0; docId < documentCount; docId++) {
+        if (!removed.get(docId)) {
+          docIdsByCommentId.put(commentIds[docId], docId);
+          liveDocumentCount++;
+          liveTermCount += documentLengths[docId];
+        }
+      }
+      lastTimestamp = snapshotTimestamp;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static int readCount(DataInputStream data, String name) throws IOException {
+    int count = data.readInt();
+    if (count < 0) {
+      throw new IOException("Corrupt snapshot: negative " + name + " count");
+    }
+    return count;
+  }
+
+  /**
+   * Resets every field except lastTimestamp. Must be called with the write lock held.
+   */
+  private void clearPostings() {
+    postings.clear();
+    docIdsByCommentId.clear();
+    commentIds = new long[16];
+    documentLengths = new int[16];
+    removed = new BitSet();
+    documentCount = 0;
+    liveDocumentCount = 0;
+    liveTermCount = 0;
+  }
+
+  /**
+   * Returns the comment ids of the limit highest scores, the highest first.
+   */
+  private List<Long> topComments(ScoreAccumulator scores, int limit) {
+    // Min-heap of document ids by score, so the lowest of the best scores is evicted first.
+    PriorityQueue<Integer> best =
+        new PriorityQueue<>(limit, (a, b) -> Float.compare(scores.get(a), scores.get(b)));
+    for (int slot = 0; slot < scores.slotCount(); slot++) {
+      int docId = scores.docIdAt(slot);
+      if (docId == ScoreAccumulator.EMPTY) {
+        continue;
+      }
+      if (best.size() < limit) {
+        best.add(docId);
+      } else if (scores.valueAt(slot) > scores.get(best.peek())) {
+        best.poll();
+        best.add(docId);
+      }
+    }
+
+    List<Long> results = new ArrayList<>(best.size());
+    while (!best.isEmpty()) {
+      results.add(commentIds[best.poll()]);
+    }
+    Collections.reverse(results);
+    return results;
+  }
+
+  /**
+   * Score per matching document id. Sparse accumulators are open-addressing maps, to avoid boxing
+   * every matching document, and dense accumulators are indexed directly by document id.
+   */
+  private static final class ScoreAccumulator {
+    static final int EMPTY = -1;
+
+    private int[] keys; // Null for dense accumulators.
+    private float[] values;
+    private int size = 0;
+
+    private ScoreAccumulator(int[] keys, float[] values) {
+      this.keys = keys;
+      this.values = values;
+    }
+
+    static ScoreAccumulator sparse() {
+      return new ScoreAccumulator(newKeys(64), new float[64]);
+    }
+
+    static ScoreAccumulator dense(int documentCount) {
+      return new ScoreAccumulator(null, new float[documentCount]);
+    }
+
+    void add(int docId, double score) {
+      if (keys == null) {
+        values[docId] += (float) score;
+        return;
+      }
+      if (size * 2 >= keys.length) {
+        resize();
+      }
+      int slot = slotOf(keys, docId);
+      if (keys[slot] == EMPTY) {
+        keys[slot] = docId;
+        size++;
+      }
+      values[slot] += (float) score;
+    }
+
+    float get(int docId) {
+      if (keys == null) {
+        return values[docId];
+      }
+      int slot = slotOf(keys, docId);
+      return keys[slot] == EMPTY ? 0 : values[slot];
+    }
+
+    int slotCount() {
+      return values.length;
+    }
+
+    /**
+     * Returns the document id stored in slot, or EMPTY. Every matching document has a positive
+     * score, so an empty dense slot is one with no score.
+     */
+    int docIdAt(int slot) {
+      if (keys == null) {
+        return values[slot] > 0 ? slot : EMPTY;
+      }
+      return keys[slot];
+    }
+
+    float valueAt(int slot) {
+      return values[slot];
+    }
+
+    private void resize() {
+      int[] oldKeys = keys;
+      float[] oldValues = values;
+      keys = newKeys(oldKeys.length * 2);
+      values = new float[oldKeys.length * 2];
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != EMPTY) {
+          int slot = slotOf(keys, oldKeys[i]);
+          keys[slot] = oldKeys[i];
+          values[slot] = oldValues[i];
+        }
+      }
+    }
+
+    private static int slotOf(int[] keys, int docId) {
+      int mask = keys.length - 1;
+      int hash = docId * 0x9E3779B9;
+      int slot = (hash ^ (hash >>> 16)) & mask;
+      while (keys[slot] != EMPTY && keys[slot] != docId) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private static int[] newKeys(int capacity) {
+      int[] keys = new int[capacity];
+      Arrays.fill(keys, EMPTY);
+      return keys;
+    }
+  }
+}
@@ -0,0 +1,196 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The documents that contain a term, with the number of times the term appears in each of them.
+ * Documents are added in increasing id order, so each entry is stored as the gap to the previous
+ * document id followed by the term frequency, both as variable-length integers. Most entries take
+ * two bytes instead of the eight bytes of two plain ints.
+ */
+final class PostingList {
+
+  private static final int READ_CHUNK_BYTES = 64 * 1024;
+
+  private byte[] data = new byte[8];
+  private int size = 0; // Number of bytes of data in use.
+  private int lastDocId = -1;
+  private int documentFrequency = 0;
+
+  /**
+   * Appends a document to the list. docId must be greater than every document id already added.
+   */
+  void add(int docId, int termFrequency) {
+    if (docId <= lastDocId) {
+      throw new IllegalArgumentException(
+          "Documents must be added in increasing order: " + docId + " after " + lastDocId);
+    }
+    ensureCapacity(size + 10);
+    size = writeVarInt(data, size, docId - lastDocId);
+    size = writeVarInt(data, size, termFrequency);
+    lastDocId = docId;
+    documentFrequency++;
+  }
+
+  /**
+   * Returns the number of documents in this list.
+   */
+  int documentFrequency() {
+    return documentFrequency;
+  }
+
+  /**
+   * Calls visitor once per document in this list, in increasing document id order.
+   */
+  void forEach(Visitor visitor) {
+    int position = 0;
+    int docId = -1;
+    while (position < size) {
+      // Decode the document gap.
+      int gap = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = data[position++];
+        gap |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      docId += gap;
+
+      // Decode the term frequency.
+      int termFrequency = 0;
+      shift = 0;
+      do {
+        b = data[position++];
+        termFrequency |= (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+
+      visitor.visit(docId, termFrequency);
+    }
+  }
+
+  void writeTo(DataOutputStream out) throws IOException {
+    out.writeInt(lastDocId);
+    out.writeInt(documentFrequency);
+    out.writeInt(size);
+    out.write(data, 0, size);
+  }
+
+  /**
+   * Reads a list written by writeTo. Throws IOException if the input is truncated or the header
+   * does not describe a valid list.
+   */
+  static PostingList readFrom(DataInputStream in) throws IOException {
+    PostingList postingList = new PostingList();
+    postingList.lastDocId = in.readInt();
+    postingList.documentFrequency = in.readInt();
+    int size = in.readInt();
+    if (postingList.lastDocId < -1 || postingList.documentFrequency < 0 || size < 0
+        || (postingList.documentFrequency == 0) != (size == 0)) {
+      throw new IOException("Corrupt posting list header");
+    }
+
+    // Grow the buffer as the bytes arrive, so a corrupt size ends in EOFException instead of
+    // allocating the whole size up front.
+    while (postingList.size < size) {
+      int chunk = Math.min(size - postingList.size, READ_CHUNK_BYTES);
+      postingList.ensureCapacity(postingList.size + chunk);
+      in.readFully(postingList.data, postingList.size, chunk);
+      postingList.size += chunk;
+    }
+    return postingList;
+  }
+
+  /**
+   * Throws IOException unless every entry decodes to a document id below documentCount with a
+   * positive term frequency, and the entries agree with the header read by readFrom.
+   */
+  void validate(int documentCount) throws IOException {
+    int position = 0;
+    long docId = -1;
+    int entries = 0;
+    while (position < size) {
+      int gapEnd = varIntEnd(position);
+      int frequencyEnd = gapEnd < 0 ? -1 : varIntEnd(gapEnd);
+      if (frequencyEnd < 0) {
+        throw new IOException("Corrupt posting list: truncated entry");
+      }
+      int gap = readVarInt(position);
+      int termFrequency = readVarInt(gapEnd);
+      docId += gap;
+      if (gap <= 0 || termFrequency <= 0 || docId >= documentCount) {
+        throw new IOException("Corrupt posting list: entry out of range");
+      }
+      position = frequencyEnd;
+      entries++;
+    }
+    if (entries != documentFrequency || docId != lastDocId) {
+      throw new IOException("Corrupt posting list: entries do not match the header");
+    }
+  }
+
+  /**
+   * Returns the position after the variable-length integer at position, or -1 if it runs past the
+   * end of the data or is longer than five bytes.
+   */
+  private int varIntEnd(int position) {
+    for (int i = 0; i < 5 && position < size; i++) {
+      if (data[position++] >= 0) {
+        return position;
+      }
+    }
+    return -1;
+  }
+
+  private int readVarInt(int position) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = data[position++];
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > data.length) {
+      data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+    }
+  }
+
+  private static int writeVarInt(byte[] buffer, int position, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+    return position;
+  }
+
+  /**
+   * Receives the entries of a posting list.
+   */
+  interface Visitor {
+    void visit(int docId, int termFrequency);
+  }
+}
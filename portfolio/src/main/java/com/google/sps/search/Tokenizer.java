@@ -0,0 +1,69 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lower case search terms. A term is a maximal run of letters and digits, so
+ * punctuation and whitespace only act as separators.
+ */
+final class Tokenizer {
+
+  /** Longer runs of letters and digits are unlikely to be searched for and are skipped. */
+  static final int MAX_TERM_LENGTH = 64;
+
+  private Tokenizer() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the terms of text in the order they appear, including repeated terms. Returns an empty
+   * list if text is null.
+   */
+  static List<String> tokenize(String text) {
+    List<String> terms = new ArrayList<>();
+    if (text == null) {
+      return terms;
+    }
+
+    int termStart = -1;
+    int i = 0;
+    while (i < text.length()) {
+      int codePoint = text.codePointAt(i);
+      if (Character.isLetterOrDigit(codePoint)) {
+        if (termStart < 0) {
+          termStart = i;
+        }
+      } else if (termStart >= 0) {
+        addTerm(terms, text, termStart, i);
+        termStart = -1;
+      }
+      i += Character.charCount(codePoint);
+    }
+    if (termStart >= 0) {
+      addTerm(terms, text, termStart, text.length());
+    }
+    return terms;
+  }
+
+  private static void addTerm(List<String> terms, String text, int start, int end) {
+    if (end - start <= MAX_TERM_LENGTH) {
+      terms.add(text.substring(start, end).toLowerCase(Locale.ROOT));
+    }
+  }
+}
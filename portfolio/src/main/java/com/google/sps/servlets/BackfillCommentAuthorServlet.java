@@ -0,0 +1,191 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.QueryResultList;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.sps.caching.ResponseCache;
+import com.google.sps.classes.DatastoreProvider;
+import com.google.sps.classes.Utils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet that adds the "authorId" property to comments stored before it existed. Those comments
+ * only have the nickname of their author, so the author is only set when the nickname is certain
+ * to name one user: exactly one user holds it now or has given it up, as recorded in the
+ * "previousNicknames" of UserInfo. Every other comment is marked with "authorUnattributed" instead
+ * of being given to whoever holds its nickname today, and later runs skip it.
+ *
+ * <p>Nicknames given up before "previousNicknames" was recorded are not known. A comment whose
+ * author renamed before then, and whose old nickname was taken by someone else, is still
+ * attributed to the new holder if that holder is the only user seen with it.
+ */
+@WebServlet("/tasks/backfill-comment-author")
+public class BackfillCommentAuthorServlet extends HttpServlet {
+
+  private static final String URL = "/tasks/backfill-comment-author";
+
+  /** Number of comments read and written per task. */
+  private static final int BATCH_SIZE = 100;
+
+  /** Datastore limits the number of values of an IN filter. */
+  private static final int MAX_IN_FILTER_VALUES = 30;
+
+  /**
+   * Starts the backfill by adding its first task to the default queue. Only administrators can
+   * start it.
+   */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (!Utils.isTaskQueueOrAdminRequest(request)) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    QueueFactory.getDefaultQueue().add(TaskOptions.Builder.withUrl(URL));
+
+    response.setContentType("text/html");
+    response.getWriter().println("Backfill started.");
+  }
+
+  /**
+   * Backfills one batch of comments, starting at the "cursor" parameter, and adds a task for the
+   * next batch if there is one. The default queue throttles the tasks and retries failed ones.
+   */
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (!Utils.isTaskQueueOrAdminRequest(request)) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+
+    FetchOptions fetchOptions = FetchOptions.Builder.withLimit(BATCH_SIZE);
+    String cursorString = request.getParameter("cursor");
+    if (cursorString != null) {
+      fetchOptions.startCursor(Cursor.fromWebSafeString(cursorString));
+    }
+
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    QueryResultList<Entity> results =
+        datastore.prepare(new Query("Comment")).asQueryResultList(fetchOptions);
+
+    // Find the comments that have not been backfilled yet.
+    List<Entity> commentsWithoutAuthor = new ArrayList<>();
+    Set<String> nicknames = new HashSet<>();
+    for (Entity entity : results) {
+      if (entity.hasProperty("authorId") || entity.hasProperty("authorUnattributed")) {
+        continue;
+      }
+      commentsWithoutAuthor.add(entity);
+      String nickname = (String) entity.getProperty("nickname");
+      if (nickname != null) {
+        nicknames.add(nickname);
+      }
+    }
+
+    // Look up the authors of the whole batch at once and write the updated comments at once.
+    Map<String, String> userIdsByNickname = getUserIdsByNickname(datastore, nicknames);
+    int attributed = 0;
+    for (Entity entity : commentsWithoutAuthor) {
+      String authorId = userIdsByNickname.get((String) entity.getProperty("nickname"));
+      if (authorId != null) {
+        entity.setProperty("authorId", authorId);
+        attributed++;
+      } else {
+        entity.setProperty("authorUnattributed", true);
+      }
+    }
+    datastore.put(commentsWithoutAuthor);
+    if (attributed > 0) {
+      ResponseCache.invalidate(DataServlet.COMMENTS_CACHE_TAG);
+    }
+
+    // A full batch means there can be more comments after it.
+    if (results.size() == BATCH_SIZE) {
+      QueueFactory.getDefaultQueue().add(TaskOptions.Builder.withUrl(URL)
+          .param("cursor", results.getCursor().toWebSafeString()));
+    }
+
+    response.setContentType("text/html");
+    response.getWriter().println("Attributed " + attributed + " and left "
+        + (commentsWithoutAuthor.size() - attributed) + " unattributed of " + results.size()
+        + " comments.");
+  }
+
+  /**
+   * Returns the id of the only user that holds or has held each nickname. Nicknames used by
+   * several users, or by none, are left out, because their comments cannot be attributed.
+   */
+  private Map<String, String> getUserIdsByNickname(
+      DatastoreService datastore, Set<String> nicknames) {
+    Map<String, Set<String>> userIdsByNickname = new HashMap<>();
+    List<String> remaining = new ArrayList<>(nicknames);
+    for (int i = 0; i < remaining.size(); i += MAX_IN_FILTER_VALUES) {
+      List<String> chunk =
+          remaining.subList(i, Math.min(i + MAX_IN_FILTER_VALUES, remaining.size()));
+      // Users that hold one of the nicknames now, then users that have given one up.
+      for (String property : new String[] {"nickname", "previousNicknames"}) {
+        Query query =
+            new Query("UserInfo")
+                .setFilter(new Query.FilterPredicate(property, Query.FilterOperator.IN, chunk));
+        for (Entity user : datastore.prepare(query).asIterable()) {
+          String id = (String) user.getProperty("id");
+          for (String nickname : getNicknames(user)) {
+            if (nicknames.contains(nickname)) {
+              userIdsByNickname.computeIfAbsent(nickname, key -> new HashSet<>()).add(id);
+            }
+          }
+        }
+      }
+    }
+
+    Map<String, String> certainUserIds = new HashMap<>();
+    for (Map.Entry<String, Set<String>> entry : userIdsByNickname.entrySet()) {
+      if (entry.getValue().size() == 1) {
+        certainUserIds.put(entry.getKey(), entry.getValue().iterator().next());
+      }
+    }
+    return certainUserIds;
+  }
+
+  /** Returns the current and previous nicknames of user. */
+  private static List<String> getNicknames(Entity user) {
+    List<String> nicknames = new ArrayList<>();
+    nicknames.add((String) user.getProperty("nickname"));
+    Collection<?> previousNicknames = (Collection<?>) user.getProperty("previousNicknames");
+    if (previousNicknames != null) {
+      for (Object previousNickname : previousNicknames) {
+        nicknames.add((String) previousNickname);
+      }
+    }
+    return nicknames;
+  }
+}
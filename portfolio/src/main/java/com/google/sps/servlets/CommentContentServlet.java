@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.sps.classes.CommentContent;
+import com.google.sps.classes.DatastoreProvider;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet that returns the full content of a single comment. The comment list in /data only
+ * carries a preview of long comments, so the full body is fetched from here on demand.
+ */
+@WebServlet("/data/content")
+public class CommentContentServlet extends HttpServlet {
+
+  /**
+   * Returns the full content of the comment with the id given in the "id" parameter as plain text.
+   */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String idString = request.getParameter("id");
+    long id;
+    try {
+      id = Long.parseLong(idString);
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid comment id: " + idString);
+      return;
+    }
+
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    Entity entity;
+    try {
+      entity = datastore.get(KeyFactory.createKey("Comment", id));
+    } catch (EntityNotFoundException e) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND, "Comment not found: " + id);
+      return;
+    }
+
+    response.setContentType("text/plain;charset=UTF-8");
+    response.getWriter().print(CommentContent.getFullContent(entity));
+  }
+}
@@ -22,24 +22,35 @@ import com.google.appengine.api.blobstore.BlobstoreServiceFactory;
 import com.google.appengine.api.images.ImagesService;
 import com.google.appengine.api.images.ImagesServiceFactory;
 import com.google.appengine.api.images.ServingUrlOptions;
+import com.google.appengine.api.datastore.Cursor;
 import com.google.appengine.api.datastore.DatastoreService;
-import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.FetchOptions;
 import com.google.appengine.api.datastore.Key;
 import com.google.appengine.api.datastore.KeyFactory;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.QueryResultList;
 import com.google.appengine.api.datastore.Query.SortDirection;
 import com.google.appengine.api.users.UserService;
 import com.google.appengine.api.users.UserServiceFactory;
-import com.google.gson.Gson;
+import com.google.sps.caching.ResponseCache;
+import com.google.sps.classes.AuthorHandles;
+import com.google.sps.classes.CommentContent;
+import com.google.sps.classes.DatastoreProvider;
+import com.google.sps.classes.JsonCodec;
+import com.google.sps.classes.SingleFlight;
+import com.google.sps.classes.SubmissionDeduplicator;
 import com.google.sps.classes.Utils;
 import com.google.sps.data.Comment;
+import com.google.sps.data.CommentPage;
+import com.google.sps.logging.StructuredLogger;
+import com.google.sps.search.CommentIndexer;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import javax.servlet.annotation.WebServlet;
@@ -53,19 +64,119 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/data")
 public class DataServlet extends HttpServlet {
 
+  private static final StructuredLogger logger = StructuredLogger.getLogger(DataServlet.class);
+
+  /** Cache tag of every response that lists comments, see ResponseCache. */
+  public static final String COMMENTS_CACHE_TAG = "comments";
+
+  /** Request attribute that Blobstore sets on the requests it forwards after an upload. */
+  private static final String BLOBSTORE_UPLOADS_ATTRIBUTE =
+      "com.google.appengine.api.blobstore.upload.blobkeys";
+
+  /**
+   * Concurrent requests for the same comments, e.g. when a shared link brings many visitors at
+   * once, share a single Datastore query. Keyed by the parsed comment limit. Only takes effect
+   * where requests run concurrently, see SingleFlight.
+   */
+  private static final SingleFlight<Integer, List<Comment>> LATEST_COMMENTS_READS =
+      SingleFlight.create("latest-comments");
+
+  /** Same for pages of comments of an author, keyed by author, cursor and limit. */
+  private static final SingleFlight<List<String>, CommentPage> AUTHOR_COMMENTS_READS =
+      SingleFlight.create("author-comments");
+
   /**
    * Gets the comments, in JSON format, taken from user input in the form from the HTML,
-   * which are stored in the messages variable.
+   * which are stored in the messages variable. If the "author" parameter is set to the author
+   * handle of a comment, only the comments of that author are returned, one page at a time.
+   * Responses are cached by CachingFilter until a comment changes.
    */
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    ResponseCache.tag(request, COMMENTS_CACHE_TAG);
+    int numOfComments = getCommentLimit(request);
+    String author = request.getParameter("author");
+    if (author != null) {
+      String authorId = AuthorHandles.toAuthorId(author);
+      if (authorId == null) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid author: " + author);
+        return;
+      }
+      getCommentsByAuthor(request, response, authorId, numOfComments);
+      return;
+    }
+
+    List<Comment> comments =
+        LATEST_COMMENTS_READS.execute(numOfComments, () -> getLatestComments(numOfComments));
+
+    // Convert the comments List to JSON format.
+    JsonCodec.writeJson(response, comments);
+  }
+
+  /**
+   * Returns the newest numOfComments comments. The list is shared by coalesced requests, so it
+   * cannot be modified.
+   */
+  private List<Comment> getLatestComments(int numOfComments) {
     // Create a query and prepare it with the data stored in Datastore.
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
     Query query = new Query("Comment").addSort("timestamp", SortDirection.DESCENDING);
     PreparedQuery preparedQuery = datastore.prepare(query);
+    List<Entity> results = preparedQuery.asList(FetchOptions.Builder.withLimit(numOfComments));
+
+    // Add all queried comments from Datastore
+    // to a List of type Comment.
+    return Collections.unmodifiableList(Utils.entitiesToComments(results));
+  }
+
+  /**
+   * Writes, in JSON format, a page of at most numOfComments comments of the author with authorId,
+   * newest first, with the cursor of the next page. The page starts at the "cursor" parameter if it
+   * is set. The query is served by the (authorId, timestamp desc) index in datastore-indexes.xml.
+   */
+  private void getCommentsByAuthor(HttpServletRequest request, HttpServletResponse response,
+      String authorId, int numOfComments) throws IOException {
+    FetchOptions fetchOptions = FetchOptions.Builder.withLimit(numOfComments);
+    String cursorString = request.getParameter("cursor");
+    if (cursorString != null && !cursorString.isEmpty()) {
+      try {
+        fetchOptions.startCursor(Cursor.fromWebSafeString(cursorString));
+      } catch (IllegalArgumentException e) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid cursor: " + cursorString);
+        return;
+      }
+    }
+
+    List<String> key = Arrays.asList(authorId, cursorString, Integer.toString(numOfComments));
+    CommentPage page = AUTHOR_COMMENTS_READS.execute(key,
+        () -> getCommentPage(authorId, fetchOptions, numOfComments));
+    JsonCodec.writeJson(response, page);
+  }
 
-    // Set maximum number of comments to be included in the response.
-    // Gets set to 0 when input is invalid.
+  private CommentPage getCommentPage(
+      String authorId, FetchOptions fetchOptions, int numOfComments) {
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    Query query =
+        new Query("Comment")
+            .setFilter(new Query.FilterPredicate("authorId", Query.FilterOperator.EQUAL, authorId))
+            .addSort("timestamp", SortDirection.DESCENDING);
+    QueryResultList<Entity> results = datastore.prepare(query).asQueryResultList(fetchOptions);
+
+    List<Comment> comments = Collections.unmodifiableList(Utils.entitiesToComments(results));
+
+    // A page shorter than the limit is the last one.
+    String nextCursor = null;
+    if (numOfComments > 0 && results.size() == numOfComments) {
+      nextCursor = results.getCursor().toWebSafeString();
+    }
+    return new CommentPage(comments, nextCursor);
+  }
+
+  /**
+   * Returns the maximum number of comments to be included in the response, taken from the
+   * "comment-limit" parameter. Returns 0 when the input is invalid.
+   */
+  private int getCommentLimit(HttpServletRequest request) {
     String numOfCommentsString = request.getParameter("comment-limit");
     int numOfComments = 0;
     try {
@@ -75,30 +186,10 @@ public class DataServlet extends HttpServlet {
             + numOfCommentsString);
       }
     } catch (NumberFormatException e) {
-      System.err.println("Could not convert to int: " + numOfCommentsString);
+      logger.warning("Invalid comment-limit", "comment-limit", numOfCommentsString);
       numOfComments = 0;
     }
-    List<Entity> results = preparedQuery.asList(FetchOptions.Builder.withLimit(numOfComments));
-
-    // Add all queried comments from Datastore
-    // to a List of type Comment.
-    List<Comment> comments = new ArrayList<>();
-    for (Entity entity : results) {
-      long id = entity.getKey().getId();
-      String nickname = (String) entity.getProperty("nickname");
-      String content = (String) entity.getProperty("content");
-      String imageUrl = (String) entity.getProperty("imageUrl");
-      long timestamp = (long) entity.getProperty("timestamp");
-
-      Comment comment = new Comment(id, nickname, content, imageUrl, timestamp);
-      comments.add(comment);
-    }
-    
-    // Convert the comments List to JSON format.
-    Gson gson = new Gson();
-
-    response.setContentType("application/json");
-    response.getWriter().println(gson.toJson(comments));
+    return numOfComments;
   }
 
   /**
@@ -107,32 +198,83 @@ public class DataServlet extends HttpServlet {
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     UserService userService = UserServiceFactory.getUserService();
-    
-    // Get the nickname, comment content, comment image and current time to add it to Datastore.
-    String nickname = Utils.getUserNickname(userService.getCurrentUser().getUserId());
+    String authorId = userService.getCurrentUser().getUserId();
     String content = request.getParameter("text-input");
-    String imageUrl = getUploadedFileUrl(request, "comment-image");
-    long timestamp = System.currentTimeMillis();
 
-    // Create an Entity that holds the comment, the image
-    // and the time it was created and store it in Datastore.
-    Entity commentEntity = new Entity("Comment");
-    commentEntity.setProperty("nickname", nickname);
-    commentEntity.setProperty("content", content);
-    commentEntity.setProperty("imageUrl", imageUrl);
-    commentEntity.setProperty("timestamp", timestamp);
+    // Drop repeated submissions (double clicks, browser retries) before doing any other work.
+    BlobInfo uploadedBlobInfo = getUploadedBlobInfo(request, "comment-image");
+    String submissionHash = SubmissionDeduplicator.hash(authorId, content,
+        uploadedBlobInfo == null ? null : uploadedBlobInfo.getMd5Hash());
+    if (!SubmissionDeduplicator.recordIfNew(submissionHash)) {
+      // The image uploaded with the duplicate is not used by any comment.
+      if (uploadedBlobInfo != null) {
+        BlobstoreServiceFactory.getBlobstoreService().delete(uploadedBlobInfo.getBlobKey());
+      }
+      response.sendRedirect("/index.html");
+      return;
+    }
+
+    try {
+      // Get the nickname, comment image and current time to add it to Datastore.
+      String nickname = Utils.getUserNickname(authorId);
+      String imageUrl = getUploadedFileUrl(request, "comment-image");
+      long timestamp = System.currentTimeMillis();
+
+      // Create an Entity that holds the comment, the image
+      // and the time it was created and store it in Datastore.
+      // Long comments only keep a preview inline, see CommentContent.
+      Entity commentEntity = new Entity("Comment");
+      commentEntity.setProperty("authorId", authorId);
+      commentEntity.setProperty("nickname", nickname);
+      CommentContent.setContent(commentEntity, content);
+      commentEntity.setProperty("imageUrl", imageUrl);
+      commentEntity.setProperty("timestamp", timestamp);
 
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-    datastore.put(commentEntity);
+      DatastoreService datastore = DatastoreProvider.getDatastoreService();
+      datastore.put(commentEntity);
+      CommentIndexer.index(commentEntity);
+      ResponseCache.invalidate(COMMENTS_CACHE_TAG);
+    } catch (RuntimeException e) {
+      // Let the user submit the comment again.
+      SubmissionDeduplicator.forget(submissionHash);
+      throw e;
+    }
 
     // Redirect back to the HTML page.
     response.sendRedirect("/index.html");
   }
 
+  /**
+   * Returns the BlobInfo of the file uploaded with the request, or null if the user didn't upload
+   * a file. It is read from the request, without calling Blobstore.
+   */
+  private BlobInfo getUploadedBlobInfo(HttpServletRequest request, String formInputElementName) {
+    if (!isBlobstoreUpload(request)) {
+      return null;
+    }
+    BlobstoreService blobstoreService = BlobstoreServiceFactory.getBlobstoreService();
+    List<BlobInfo> blobInfos = blobstoreService.getBlobInfos(request).get(formInputElementName);
+    if (blobInfos == null || blobInfos.isEmpty()) {
+      return null;
+    }
+    return blobInfos.get(0);
+  }
+
+  /**
+   * Returns true if the request was forwarded by Blobstore after an upload. Comments posted
+   * straight to /data, e.g. by the embedded launcher or scripts, have no image.
+   */
+  private boolean isBlobstoreUpload(HttpServletRequest request) {
+    return request.getAttribute(BLOBSTORE_UPLOADS_ATTRIBUTE) != null;
+  }
+
   /**
    * Returns a URL that points to the uploaded file, or null if the user didn't upload a file.
    */
   private String getUploadedFileUrl(HttpServletRequest request, String formInputElementName) {
+    if (!isBlobstoreUpload(request)) {
+      return null;
+    }
     BlobstoreService blobstoreService = BlobstoreServiceFactory.getBlobstoreService();
     Map<String, List<BlobKey>> blobs = blobstoreService.getUploads(request);
     List<BlobKey> blobKeys = blobs.get(formInputElementName);
@@ -15,7 +15,6 @@
 package com.google.sps.servlets;
 
 import com.google.appengine.api.datastore.DatastoreService;
-import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.FetchOptions;
 import com.google.appengine.api.datastore.Key;
@@ -24,7 +23,10 @@ import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Query.SortDirection;
 import com.google.gson.Gson;
+import com.google.sps.caching.ResponseCache;
+import com.google.sps.classes.DatastoreProvider;
 import com.google.sps.data.Comment;
+import com.google.sps.search.CommentSearchIndex;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -45,14 +47,17 @@ public class DeleteDataServlet extends HttpServlet {
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     // Prepare a query with all comments.
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
     Query query = new Query("Comment");
     PreparedQuery results = datastore.prepare(query);
     
     // Delete all queried comments.
+    CommentSearchIndex searchIndex = CommentSearchIndex.getInstance();
     for (Entity entity : results.asIterable()) {
       datastore.delete(entity.getKey());
+      searchIndex.remove(entity.getKey().getId());
     }
+    ResponseCache.invalidate(DataServlet.COMMENTS_CACHE_TAG);
 
     // Return an empty response.
     response.setContentType("text/html");
@@ -21,7 +21,7 @@ import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.users.UserService;
 import com.google.appengine.api.users.UserServiceFactory;
-import com.google.gson.Gson;
+import com.google.sps.classes.JsonCodec;
 import com.google.sps.classes.Utils;
 import com.google.sps.data.UserAuthenticationData;
 import java.io.IOException;
@@ -71,8 +71,6 @@ public class LoginServlet extends HttpServlet {
         new UserAuthenticationData(loggedIn, authenticationUrl, userEmail, nickname);
 
     // Convert the user to JSON format and return it as response.
-    Gson gson = new Gson();
-    response.setContentType("application/json");
-    response.getWriter().println(gson.toJson(userAuthenticationData));
+    JsonCodec.writeJson(response, userAuthenticationData);
   }
 }
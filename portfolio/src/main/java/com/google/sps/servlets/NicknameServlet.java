@@ -15,14 +15,19 @@
 package com.google.sps.servlets;
 
 import com.google.appengine.api.datastore.DatastoreService;
-import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.PreparedQuery;
-import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.KeyFactory;
 import com.google.appengine.api.users.UserService;
 import com.google.appengine.api.users.UserServiceFactory;
+import com.google.sps.caching.ResponseCache;
+import com.google.sps.classes.DatastoreProvider;
 import com.google.sps.classes.Utils;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -63,12 +68,42 @@ public class NicknameServlet extends HttpServlet {
     String nickname = request.getParameter("nickname");
     String id = userService.getCurrentUser().getUserId();
 
-    DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-    Entity entity = new Entity("UserInfo", id);
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    Entity entity;
+    try {
+      entity = datastore.get(KeyFactory.createKey("UserInfo", id));
+    } catch (EntityNotFoundException e) {
+      entity = new Entity("UserInfo", id);
+    }
+    String previousNickname =
+        entity.hasProperty("nickname") ? (String) entity.getProperty("nickname") : "";
+
+    // Nicknames given up are kept, so BackfillCommentAuthorServlet can tell when a nickname has
+    // been used by more than one user.
+    if (!previousNickname.isEmpty() && !previousNickname.equals(nickname)) {
+      Set<String> previousNicknames = new LinkedHashSet<>();
+      Collection<?> stored = (Collection<?>) entity.getProperty("previousNicknames");
+      if (stored != null) {
+        for (Object storedNickname : stored) {
+          previousNicknames.add((String) storedNickname);
+        }
+      }
+      previousNicknames.add(previousNickname);
+      entity.setProperty("previousNicknames", new ArrayList<>(previousNicknames));
+    }
     entity.setProperty("id", id);
     entity.setProperty("nickname", nickname);
     datastore.put(entity);
 
+    // Comments keep a copy of the nickname, so update them in the background.
+    if (!previousNickname.isEmpty() && !previousNickname.equals(nickname)) {
+      PropagateNicknameServlet.enqueue(id);
+    }
+    // Comments listed with the nickname resolved at read time change right away.
+    if (!previousNickname.equals(nickname)) {
+      ResponseCache.invalidate(DataServlet.COMMENTS_CACHE_TAG);
+    }
+
     response.sendRedirect("/index.html");
   }
 }
@@ -0,0 +1,163 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.classes.JsonCodec;
+import com.google.sps.classes.Utils;
+import com.google.sps.data.ProfilingStatus;
+import com.google.sps.profiling.FlightRecorder;
+import com.google.sps.profiling.LatencySloFilter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet that controls the Java Flight Recorder recordings of the instance that serves it. Only
+ * administrators can use it.
+ *
+ * <p>GET returns the status in JSON format, or with "download=slo" the recording dumped after the
+ * latest latency SLO breach. POST takes an "action":
+ * <ul>
+ *   <li>start: starts a recording of "seconds" seconds (default 60) keeping at most "max-mb"
+ *       megabytes (default 20), both capped by FlightRecorder.
+ *   <li>stop: stops the recording and sends its file.
+ *   <li>start-continuous, stop-continuous: controls the continuous recording.
+ *   <li>dump: sends the window kept by the continuous recording.
+ * </ul>
+ * The files can be opened with JDK Mission Control or `jfr print`.
+ */
+@WebServlet("/admin/profiling")
+public class ProfilingServlet extends HttpServlet {
+
+  private static final int DEFAULT_SECONDS = 60;
+  private static final int DEFAULT_MAX_MB = 20;
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (!Utils.isTaskQueueOrAdminRequest(request)) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+
+    if ("slo".equals(request.getParameter("download"))) {
+      File dump = LatencySloFilter.getLatestDump();
+      if (dump == null || !dump.exists()) {
+        response.sendError(HttpServletResponse.SC_NOT_FOUND, "No SLO breach was recorded.");
+        return;
+      }
+      // Keep the file, it is replaced by the next breach.
+      sendFile(response, dump, "slo-breach.jfr");
+      return;
+    }
+    writeStatus(response);
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (!Utils.isTaskQueueOrAdminRequest(request)) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    if (!FlightRecorder.isAvailable()) {
+      response.sendError(HttpServletResponse.SC_NOT_IMPLEMENTED,
+          "Java Flight Recorder is not available on this JVM.");
+      return;
+    }
+
+    String action = String.valueOf(request.getParameter("action"));
+    try {
+      switch (action) {
+        case "start":
+          int seconds = getIntParameter(request, "seconds", DEFAULT_SECONDS);
+          int maxMegabytes = getIntParameter(request, "max-mb", DEFAULT_MAX_MB);
+          FlightRecorder.start(Duration.ofSeconds(seconds), maxMegabytes * 1024L * 1024L);
+          writeStatus(response);
+          break;
+        case "stop":
+          sendAndDelete(response, FlightRecorder.stop(), "recording.jfr");
+          break;
+        case "start-continuous":
+          FlightRecorder.startContinuous();
+          writeStatus(response);
+          break;
+        case "stop-continuous":
+          FlightRecorder.stopContinuous();
+          writeStatus(response);
+          break;
+        case "dump":
+          sendAndDelete(response, FlightRecorder.dumpContinuous(), "continuous.jfr");
+          break;
+        default:
+          response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown action: " + action);
+      }
+    } catch (IllegalStateException e) {
+      // A recording is already running.
+      response.sendError(HttpServletResponse.SC_CONFLICT, e.getMessage());
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  private static int getIntParameter(HttpServletRequest request, String name, int defaultValue) {
+    String value = request.getParameter(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    int number = Integer.parseInt(value);
+    if (number <= 0) {
+      throw new IllegalArgumentException(name + " must be positive: " + value);
+    }
+    return number;
+  }
+
+  private static void writeStatus(HttpServletResponse response) throws IOException {
+    File sloDump = LatencySloFilter.getLatestDump();
+    JsonCodec.writeJson(response, new ProfilingStatus(FlightRecorder.isAvailable(),
+        FlightRecorder.getRecordingState(), FlightRecorder.isContinuousRunning(),
+        LatencySloFilter.getSloMillis(), sloDump != null && sloDump.exists()));
+  }
+
+  private static void sendAndDelete(HttpServletResponse response, File file, String fileName)
+      throws IOException {
+    if (file == null) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND, "There is no such recording.");
+      return;
+    }
+    try {
+      sendFile(response, file, fileName);
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Streams the file as an attachment, without reading it into memory.
+   */
+  private static void sendFile(HttpServletResponse response, File file, String fileName)
+      throws IOException {
+    response.setContentType("application/octet-stream");
+    response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+    response.setContentLengthLong(file.length());
+    try (OutputStream out = response.getOutputStream()) {
+      Files.copy(file.toPath(), out);
+    }
+  }
+}
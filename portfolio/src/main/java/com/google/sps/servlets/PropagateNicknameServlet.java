@@ -0,0 +1,159 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.QueryResultList;
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.sps.caching.ResponseCache;
+import com.google.sps.classes.DatastoreProvider;
+import com.google.sps.classes.Utils;
+import com.google.sps.logging.StructuredLogger;
+import com.google.sps.search.CommentIndexer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet that copies the current nickname of a user into all of their comments, one batch per
+ * task of the "nickname-propagation" queue defined in queue.xml.
+ */
+@WebServlet("/tasks/propagate-nickname")
+public class PropagateNicknameServlet extends HttpServlet {
+
+  private static final StructuredLogger logger =
+      StructuredLogger.getLogger(PropagateNicknameServlet.class);
+
+  private static final String URL = "/tasks/propagate-nickname";
+
+  /** Number of comments read and written per task. */
+  private static final int BATCH_SIZE = 100;
+
+  /** Delay between two batches of the same user, on top of the rate limit of the queue. */
+  private static final long BATCH_DELAY_MILLIS = 1000;
+
+  /**
+   * Adds a task that propagates the nickname of the user with id to their comments.
+   */
+  public static void enqueue(String id) {
+    getQueue().add(TaskOptions.Builder.withUrl(URL).param("id", id));
+  }
+
+  /**
+   * Updates one batch of comments of the user in the "id" parameter, starting at the "cursor"
+   * parameter, and adds a task for the next batch if there is one. Every batch reads the nickname
+   * again, so a task that is retried, or that runs after a newer nickname change, still writes the
+   * current nickname.
+   *
+   * <p>A task without an id or with an invalid cursor is dropped with a 200 instead of answered
+   * with an error, since the queue would retry it forever.
+   */
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (!Utils.isTaskQueueOrAdminRequest(request)) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+
+    String id = request.getParameter("id");
+    if (id == null || id.isEmpty()) {
+      drop(response, "Missing id.");
+      return;
+    }
+
+    FetchOptions fetchOptions = FetchOptions.Builder.withLimit(BATCH_SIZE);
+    String cursorString = request.getParameter("cursor");
+    if (cursorString != null) {
+      try {
+        fetchOptions.startCursor(Cursor.fromWebSafeString(cursorString));
+      } catch (IllegalArgumentException e) {
+        drop(response, "Invalid cursor: " + cursorString);
+        return;
+      }
+    }
+
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    String nickname = readNickname(datastore, id);
+
+    Query query =
+        new Query("Comment")
+            .setFilter(new Query.FilterPredicate("authorId", Query.FilterOperator.EQUAL, id));
+    QueryResultList<Entity> results = datastore.prepare(query).asQueryResultList(fetchOptions);
+
+    // Only write the comments that still have another nickname, all in one batch.
+    List<Entity> updatedComments = new ArrayList<>();
+    for (Entity entity : results) {
+      if (!nickname.equals(entity.getProperty("nickname"))) {
+        entity.setProperty("nickname", nickname);
+        updatedComments.add(entity);
+      }
+    }
+    datastore.put(updatedComments);
+    for (Entity entity : updatedComments) {
+      CommentIndexer.reindex(entity);
+    }
+    if (!updatedComments.isEmpty()) {
+      ResponseCache.invalidate(DataServlet.COMMENTS_CACHE_TAG);
+    }
+
+    // A full batch means there can be more comments after it.
+    if (results.size() == BATCH_SIZE) {
+      getQueue().add(TaskOptions.Builder.withUrl(URL)
+          .param("id", id)
+          .param("cursor", results.getCursor().toWebSafeString())
+          .countdownMillis(BATCH_DELAY_MILLIS));
+    }
+
+    response.setContentType("text/html");
+    response.getWriter().println("Updated " + updatedComments.size() + " of "
+        + results.size() + " comments.");
+  }
+
+  private static void drop(HttpServletResponse response, String reason) throws IOException {
+    logger.warning("Dropped nickname propagation task", "reason", reason);
+    response.setContentType("text/html");
+    response.getWriter().println("Dropped task. " + reason);
+  }
+
+  /**
+   * Reads the nickname of the user with id by key, which is strongly consistent, unlike a query
+   * on the "id" property. A query right after NicknameServlet's put can still return the old
+   * nickname, which would then be written into every comment.
+   */
+  private static String readNickname(DatastoreService datastore, String id) {
+    try {
+      Entity user = datastore.get(KeyFactory.createKey("UserInfo", id));
+      return (String) user.getProperty("nickname");
+    } catch (EntityNotFoundException e) {
+      return "";
+    }
+  }
+
+  private static Queue getQueue() {
+    return QueueFactory.getQueue("nickname-propagation");
+  }
+}
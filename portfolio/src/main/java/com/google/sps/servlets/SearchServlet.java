@@ -0,0 +1,87 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.sps.classes.DatastoreProvider;
+import com.google.sps.classes.JsonCodec;
+import com.google.sps.classes.Utils;
+import com.google.sps.data.Comment;
+import com.google.sps.logging.StructuredLogger;
+import com.google.sps.search.CommentIndexer;
+import com.google.sps.search.CommentSearchIndex;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet that searches the nickname and content of the comments.
+ */
+@WebServlet("/data/search")
+public class SearchServlet extends HttpServlet {
+
+  private static final StructuredLogger logger = StructuredLogger.getLogger(SearchServlet.class);
+
+  private static final int DEFAULT_LIMIT = 10;
+  private static final int MAX_LIMIT = 100;
+
+  /**
+   * Returns, in JSON format, the comments that best match the "q" parameter, the most relevant
+   * first. The optional "limit" parameter sets the maximum number of comments returned.
+   */
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String query = request.getParameter("q");
+    int limit = DEFAULT_LIMIT;
+    String limitString = request.getParameter("limit");
+    if (limitString != null) {
+      try {
+        limit = Math.min(Integer.parseInt(limitString), MAX_LIMIT);
+      } catch (NumberFormatException e) {
+        logger.warning("Invalid limit", "limit", limitString);
+      }
+    }
+
+    // Find the matching comment ids in the index, then load those comments in a single batch.
+    CommentIndexer.catchUpIfStale();
+    List<Long> commentIds = CommentSearchIndex.getInstance().search(query, limit);
+    List<Key> keys = new ArrayList<>(commentIds.size());
+    for (long commentId : commentIds) {
+      keys.add(KeyFactory.createKey("Comment", commentId));
+    }
+    DatastoreService datastore = DatastoreProvider.getDatastoreService();
+    Map<Key, Entity> entities = datastore.get(keys);
+
+    // Keep the order of relevance, skipping comments deleted on other instances.
+    List<Entity> found = new ArrayList<>(keys.size());
+    for (Key key : keys) {
+      Entity entity = entities.get(key);
+      if (entity != null) {
+        found.add(entity);
+      }
+    }
+    List<Comment> comments = Utils.entitiesToComments(found);
+
+    JsonCodec.writeJson(response, comments);
+  }
+}
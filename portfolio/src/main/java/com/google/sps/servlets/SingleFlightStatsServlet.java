@@ -0,0 +1,50 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.classes.JsonCodec;
+import com.google.sps.classes.SingleFlight;
+import com.google.sps.classes.Utils;
+import com.google.sps.data.SingleFlightStats;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet that lists, in JSON format, how many reads of this instance were coalesced by each
+ * SingleFlight since the instance started. Only administrators can see them.
+ */
+@WebServlet("/admin/single-flight")
+public class SingleFlightStatsServlet extends HttpServlet {
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (!Utils.isTaskQueueOrAdminRequest(request)) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+
+    List<SingleFlightStats> stats = new ArrayList<>();
+    for (SingleFlight<?, ?> singleFlight : SingleFlight.getInstances()) {
+      stats.add(new SingleFlightStats(singleFlight.getName(), singleFlight.getCalls(),
+          singleFlight.getCoalescedCalls(), singleFlight.getCoalescingRatio()));
+    }
+    JsonCodec.writeJson(response, stats);
+  }
+}
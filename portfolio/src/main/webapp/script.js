@@ -139,6 +139,24 @@ function createCommentElement(comment) {
   contentElement.innerText = comment.content;
   commentElement.appendChild(contentElement);
 
+  // Long comments only include a preview, so add a link that fetches
+  // the full content of the comment.
+  if (comment.truncated) {
+    const readMoreElement = document.createElement('a');
+    readMoreElement.href = '#';
+    readMoreElement.innerText = ' Read more';
+    readMoreElement.addEventListener('click', (event) => {
+      event.preventDefault();
+      fetch('/data/content?id=' + comment.id)
+          .then(response => response.text())
+          .then(fullContent => {
+            contentElement.innerText = fullContent;
+            readMoreElement.remove();
+          });
+    });
+    commentElement.appendChild(readMoreElement);
+  }
+
   // Create element for image if it exists and append it to comment.
   if (comment.imageUrl != null) {
     const imageSourceElement = document.createElement('img');
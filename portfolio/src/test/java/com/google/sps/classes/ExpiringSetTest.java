@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.classes;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ExpiringSetTest {
+
+  private static final long ONE_HOUR_MILLIS = 60 * 60 * 1000;
+
+  @Test
+  public void addingTwiceBeforeExpiry() {
+    ExpiringSet set = new ExpiringSet(10, ONE_HOUR_MILLIS);
+
+    Assert.assertTrue(set.add("a"));
+    Assert.assertFalse(set.add("a"));
+    Assert.assertEquals(1, set.size());
+  }
+
+  @Test
+  public void expiredElementsCanBeAddedAgain() {
+    ExpiringSet set = new ExpiringSet(10, -1);
+
+    Assert.assertTrue(set.add("a"));
+    Assert.assertTrue(set.add("a"));
+  }
+
+  @Test
+  public void oldestElementsAreForgottenFirst() {
+    ExpiringSet set = new ExpiringSet(2, ONE_HOUR_MILLIS);
+    set.add("a");
+    set.add("b");
+    set.add("c");
+
+    Assert.assertEquals(2, set.size());
+    Assert.assertTrue(set.add("a"));
+    Assert.assertFalse(set.add("c"));
+  }
+
+  @Test
+  public void elementAddedAgainAfterRemoveIsNotEvictedByItsOldEntry() {
+    ExpiringSet set = new ExpiringSet(2, ONE_HOUR_MILLIS);
+    set.add("a");
+    set.add("b");
+    set.remove("a");
+    set.add("a");
+
+    // "b" is now the oldest element, so it is the one forgotten, not "a".
+    set.add("c");
+
+    Assert.assertEquals(2, set.size());
+    Assert.assertFalse(set.add("a"));
+    Assert.assertFalse(set.add("c"));
+    Assert.assertTrue(set.add("b"));
+  }
+}
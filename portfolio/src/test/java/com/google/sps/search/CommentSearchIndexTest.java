@@ -0,0 +1,296 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CommentSearchIndexTest {
+
+  private static final int SNAPSHOT_MAGIC = 0x43534958;
+  private static final int SNAPSHOT_VERSION = 1;
+
+  private CommentSearchIndex index;
+
+  @Before
+  public void setUp() {
+    index = new CommentSearchIndex();
+  }
+
+  @Test
+  public void emptyIndexAndEmptyQuery() {
+    Assert.assertEquals(Collections.emptyList(), index.search("hello", 10));
+
+    index.add(1, "Ana", "hello", 100);
+
+    Assert.assertEquals(Collections.emptyList(), index.search("", 10));
+    Assert.assertEquals(Collections.emptyList(), index.search("...", 10));
+    Assert.assertEquals(Collections.emptyList(), index.search(null, 10));
+    Assert.assertEquals(Collections.emptyList(), index.search("hello", 0));
+    Assert.assertEquals(Collections.emptyList(), index.search("goodbye", 10));
+  }
+
+  @Test
+  public void matchesNicknameAndContentIgnoringCase() {
+    index.add(1, "Ana", "Nice portfolio!", 100);
+    index.add(2, "Luis", "Hello, ANA.", 200);
+
+    Assert.assertEquals(Arrays.asList(1L), index.search("PORTFOLIO", 10));
+    Assert.assertEquals(2, index.search("ana", 10).size());
+  }
+
+  @Test
+  public void higherTermFrequencyRanksFirst() {
+    index.add(1, "Ana", "java and more", 100);
+    index.add(2, "Luis", "java java java", 200);
+    index.add(3, "Eva", "something else", 300);
+
+    Assert.assertEquals(Arrays.asList(2L, 1L), index.search("java", 10));
+  }
+
+  @Test
+  public void rarerTermWeighsMore() {
+    // "common" is in every comment but "rare" only in one, so matching "rare" wins.
+    index.add(1, "Ana", "common common", 100);
+    index.add(2, "Luis", "common rare", 200);
+    index.add(3, "Eva", "common words", 300);
+    index.add(4, "Leo", "common words", 400);
+
+    Assert.assertEquals(Long.valueOf(2), index.search("common rare", 10).get(0));
+  }
+
+  @Test
+  public void shorterCommentRanksFirst() {
+    index.add(1, "Ana", "cats and many other words about other things", 100);
+    index.add(2, "Luis", "cats", 200);
+    index.add(3, "Eva", "dogs", 300);
+
+    Assert.assertEquals(Arrays.asList(2L, 1L), index.search("cats", 10));
+  }
+
+  @Test
+  public void limitKeepsTheBestMatches() {
+    for (int i = 1; i <= 5; i++) {
+      index.add(i, "Ana", String.join(" ", Collections.nCopies(i, "java")), i);
+    }
+
+    Assert.assertEquals(Arrays.asList(5L, 4L), index.search("java", 2));
+  }
+
+  @Test
+  public void addingTwiceDoesNothing() {
+    index.add(1, "Ana", "hello", 100);
+    index.add(1, "Ana", "goodbye", 200);
+
+    Assert.assertEquals(1, index.size());
+    Assert.assertEquals(Arrays.asList(1L), index.search("hello", 10));
+    Assert.assertEquals(Collections.emptyList(), index.search("goodbye", 10));
+    Assert.assertEquals(100, index.getLastTimestamp());
+  }
+
+  @Test
+  public void removeAndAddAgain() {
+    index.add(1, "Ana", "hello", 100);
+    index.add(2, "Luis", "hello world", 200);
+
+    index.remove(1);
+    index.remove(1);
+    index.remove(3);
+
+    Assert.assertEquals(1, index.size());
+    Assert.assertEquals(Arrays.asList(2L), index.search("hello", 10));
+
+    index.add(1, "Ana", "edited", 300);
+
+    Assert.assertEquals(2, index.size());
+    Assert.assertEquals(Arrays.asList(2L), index.search("hello", 10));
+    Assert.assertEquals(Arrays.asList(1L), index.search("edited", 10));
+  }
+
+  @Test
+  public void replaceReindexesTheNewNickname() {
+    index.add(1, "Ana", "hello", 100);
+    index.add(2, "Luis", "hello world", 200);
+
+    index.replace(1, "Anita", "hello", 100);
+
+    Assert.assertEquals(2, index.size());
+    Assert.assertEquals(Collections.emptyList(), index.search("ana", 10));
+    Assert.assertEquals(Arrays.asList(1L), index.search("anita", 10));
+    Assert.assertEquals(2, index.search("hello", 10).size());
+  }
+
+  @Test
+  public void replaceAddsACommentThatIsNotIndexed() {
+    index.replace(1, "Ana", "hello", 100);
+
+    Assert.assertEquals(1, index.size());
+    Assert.assertEquals(Arrays.asList(1L), index.search("hello", 10));
+  }
+
+  @Test
+  public void removingEveryCommentAndAddingAgain() {
+    index.add(1, "Ana", "hello", 100);
+    index.remove(1);
+
+    Assert.assertEquals(0, index.size());
+    Assert.assertEquals(Collections.emptyList(), index.search("hello", 10));
+
+    index.add(1, "Ana", "hello", 100);
+
+    Assert.assertEquals(Arrays.asList(1L), index.search("hello", 10));
+  }
+
+  @Test
+  public void clearKeepsLastTimestamp() {
+    index.add(1, "Ana", "hello", 100);
+    index.clear();
+
+    Assert.assertEquals(0, index.size());
+    Assert.assertEquals(Collections.emptyList(), index.search("hello", 10));
+    Assert.assertEquals(100, index.getLastTimestamp());
+  }
+
+  @Test
+  public void snapshotRoundTrip() throws IOException {
+    index.add(1, "Ana", "java java and more", 100);
+    index.add(2, "Luis", "java everywhere", 200);
+    index.add(3, "Eva", "python", 300);
+    index.add(4, "Leo", "java", 400);
+    index.remove(3);
+
+    CommentSearchIndex restored = new CommentSearchIndex();
+    restored.add(9, "Old", "stale content", 50);
+    restored.readSnapshot(new ByteArrayInputStream(snapshot(index)));
+
+    Assert.assertEquals(3, restored.size());
+    Assert.assertEquals(400, restored.getLastTimestamp());
+    Assert.assertEquals(index.search("java", 10), restored.search("java", 10));
+    Assert.assertEquals(Collections.emptyList(), restored.search("python", 10));
+    Assert.assertEquals(Collections.emptyList(), restored.search("stale", 10));
+
+    // The restored index keeps accepting comments.
+    restored.add(5, "Ana", "python", 500);
+    Assert.assertEquals(Arrays.asList(5L), restored.search("python", 10));
+  }
+
+  @Test
+  public void truncatedSnapshotLeavesIndexUnchanged() throws IOException {
+    CommentSearchIndex source = new CommentSearchIndex();
+    source.add(1, "Ana", "java java", 100);
+    source.add(2, "Luis", "java", 200);
+    source.remove(1);
+    byte[] snapshot = snapshot(source);
+
+    index.add(7, "Eva", "java", 700);
+    for (int length = 0; length < snapshot.length; length++) {
+      try {
+        index.readSnapshot(new ByteArrayInputStream(Arrays.copyOf(snapshot, length)));
+        Assert.fail("Read a snapshot truncated to " + length + " bytes");
+      } catch (IOException expected) {
+        // Expected.
+      }
+      Assert.assertEquals(Arrays.asList(7L), index.search("java", 10));
+      Assert.assertEquals(700, index.getLastTimestamp());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void notASnapshot() throws IOException {
+    index.readSnapshot(new ByteArrayInputStream("not a snapshot".getBytes("UTF-8")));
+  }
+
+  @Test(expected = IOException.class)
+  public void negativeDocumentCount() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = snapshotHeader(bytes);
+    out.writeInt(-1);
+    out.flush();
+
+    index.readSnapshot(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  @Test(expected = IOException.class)
+  public void hugeTermCountWithoutTerms() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = snapshotHeader(bytes);
+    out.writeInt(0); // Documents.
+    out.writeInt(0); // Removed words.
+    out.writeInt(Integer.MAX_VALUE); // Terms.
+    out.flush();
+
+    index.readSnapshot(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  @Test(expected = IOException.class)
+  public void postingOfMissingDocument() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = snapshotHeader(bytes);
+    out.writeInt(1); // Documents.
+    out.writeLong(1);
+    out.writeInt(1);
+    out.writeInt(0); // Removed words.
+    out.writeInt(1); // Terms.
+    out.writeUTF("java");
+    PostingList postingList = new PostingList();
+    postingList.add(5, 1);
+    postingList.writeTo(out);
+    out.flush();
+
+    index.readSnapshot(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  @Test(expected = IOException.class)
+  public void negativePostingListSize() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = snapshotHeader(bytes);
+    out.writeInt(1); // Documents.
+    out.writeLong(1);
+    out.writeInt(1);
+    out.writeInt(0); // Removed words.
+    out.writeInt(1); // Terms.
+    out.writeUTF("java");
+    out.writeInt(0); // Last document id.
+    out.writeInt(1); // Document frequency.
+    out.writeInt(-2); // Size in bytes.
+    out.flush();
+
+    index.readSnapshot(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  private static byte[] snapshot(CommentSearchIndex index) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    index.writeSnapshot(bytes);
+    return bytes.toByteArray();
+  }
+
+  private static DataOutputStream snapshotHeader(ByteArrayOutputStream bytes) throws IOException {
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(SNAPSHOT_MAGIC);
+    out.writeInt(SNAPSHOT_VERSION);
+    out.writeLong(0); // Last timestamp.
+    return out;
+  }
+}
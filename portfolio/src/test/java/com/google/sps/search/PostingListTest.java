@@ -0,0 +1,139 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class PostingListTest {
+
+  // Gaps and frequencies around every varint length, up to the largest document id.
+  private static final int[] DOC_IDS =
+      {0, 1, 127, 128, 255, 16_383, 16_384, 2_097_151, 2_097_152, 268_435_456, Integer.MAX_VALUE};
+  private static final int[] TERM_FREQUENCIES =
+      {1, 127, 128, 16_384, 2_097_152, 268_435_456, Integer.MAX_VALUE, 1, 2, 3, 4};
+
+  @Test
+  public void entriesRoundTrip() {
+    PostingList postingList = newPostingList();
+
+    Assert.assertEquals(DOC_IDS.length, postingList.documentFrequency());
+    Assert.assertEquals(expectedEntries(), entries(postingList));
+  }
+
+  @Test
+  public void snapshotRoundTrip() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    newPostingList().writeTo(out);
+    out.flush();
+
+    PostingList read = PostingList.readFrom(
+        new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    Assert.assertEquals(DOC_IDS.length, read.documentFrequency());
+    Assert.assertEquals(expectedEntries(), entries(read));
+  }
+
+  @Test
+  public void emptyList() {
+    Assert.assertEquals(0, new PostingList().documentFrequency());
+    Assert.assertEquals(new ArrayList<List<Integer>>(), entries(new PostingList()));
+  }
+
+  @Test
+  public void documentsBelowTheDocumentCountAreValid() throws IOException {
+    newPostingList(0, 1, 200, 70_000).validate(70_001);
+  }
+
+  @Test(expected = IOException.class)
+  public void documentPastTheDocumentCountIsInvalid() throws IOException {
+    newPostingList(0, 1, 200, 70_000).validate(70_000);
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedVarIntIsInvalid() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(0); // Last document id.
+    out.writeInt(1); // Document frequency.
+    out.writeInt(2); // Size in bytes.
+    out.write(new byte[] {1, (byte) 0x80}); // The term frequency never ends.
+    out.flush();
+
+    PostingList.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+        .validate(1);
+  }
+
+  @Test(expected = IOException.class)
+  public void negativeSizeIsInvalid() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(0);
+    out.writeInt(1);
+    out.writeInt(-1);
+    out.flush();
+
+    PostingList.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void documentsMustBeAddedInIncreasingOrder() {
+    PostingList postingList = new PostingList();
+    postingList.add(5, 1);
+    postingList.add(5, 1);
+  }
+
+  private static PostingList newPostingList() {
+    PostingList postingList = new PostingList();
+    for (int i = 0; i < DOC_IDS.length; i++) {
+      postingList.add(DOC_IDS[i], TERM_FREQUENCIES[i]);
+    }
+    return postingList;
+  }
+
+  private static PostingList newPostingList(int... docIds) {
+    PostingList postingList = new PostingList();
+    for (int docId : docIds) {
+      postingList.add(docId, 1);
+    }
+    return postingList;
+  }
+
+  private static List<List<Integer>> expectedEntries() {
+    List<List<Integer>> entries = new ArrayList<>();
+    for (int i = 0; i < DOC_IDS.length; i++) {
+      entries.add(Arrays.asList(DOC_IDS[i], TERM_FREQUENCIES[i]));
+    }
+    return entries;
+  }
+
+  private static List<List<Integer>> entries(PostingList postingList) {
+    List<List<Integer>> entries = new ArrayList<>();
+    postingList.forEach((docId, termFrequency) -> entries.add(Arrays.asList(docId, termFrequency)));
+    return entries;
+  }
+}
@@ -0,0 +1,59 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class TokenizerTest {
+
+  @Test
+  public void punctuationAndWhitespaceSeparateTerms() {
+    Assert.assertEquals(Arrays.asList("hello", "world", "it", "s", "2020"),
+        Tokenizer.tokenize("  Hello,world!! It's\t2020...\n"));
+  }
+
+  @Test
+  public void termsAreLowerCase() {
+    Assert.assertEquals(Arrays.asList("java", "java", "java"), Tokenizer.tokenize("JAVA Java java"));
+  }
+
+  @Test
+  public void emptyAndNullTextHaveNoTerms() {
+    Assert.assertEquals(Collections.emptyList(), Tokenizer.tokenize(null));
+    Assert.assertEquals(Collections.emptyList(), Tokenizer.tokenize(""));
+    Assert.assertEquals(Collections.emptyList(), Tokenizer.tokenize(" .,;!? "));
+  }
+
+  @Test
+  public void lettersOutsideOfAsciiAndSurrogatePairs() {
+    // U+1D400 is a letter outside of the Basic Multilingual Plane, written as two chars.
+    Assert.assertEquals(Arrays.asList("café", "niño", "𝐀x"),
+        Tokenizer.tokenize("Café NIÑO 𝐀x"));
+  }
+
+  @Test
+  public void longTermsAreSkipped() {
+    String longest = String.join("", Collections.nCopies(Tokenizer.MAX_TERM_LENGTH, "a"));
+
+    Assert.assertEquals(Arrays.asList(longest, "b"),
+        Tokenizer.tokenize(longest + " " + longest + "a b"));
+  }
+}
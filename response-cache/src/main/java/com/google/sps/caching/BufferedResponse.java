@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.caching;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Keeps the body written by a servlet in memory instead of sending it, so CachingFilter can cache
+ * it and answer with a 304 instead. Headers, status, errors and redirects go to the wrapped
+ * response as usual.
+ */
+final class BufferedResponse extends HttpServletResponseWrapper {
+
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+  private ServletOutputStream outputStream = null;
+  private PrintWriter writer = null;
+
+  BufferedResponse(HttpServletResponse response) {
+    super(response);
+  }
+
+  @Override
+  public ServletOutputStream getOutputStream() {
+    if (writer != null) {
+      throw new IllegalStateException("getWriter() has already been called");
+    }
+    if (outputStream == null) {
+      outputStream = new ServletOutputStream() {
+        @Override
+        public void write(int b) {
+          buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+          buffer.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        /**
+         * The body is only sent once the servlet returns, so there is nothing to wait for and a
+         * listener would never be called.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+          throw new IllegalStateException(
+              "Asynchronous writes are not supported through the response cache");
+        }
+      };
+    }
+    return outputStream;
+  }
+
+  @Override
+  public PrintWriter getWriter() throws IOException {
+    if (outputStream != null) {
+      throw new IllegalStateException("getOutputStream() has already been called");
+    }
+    if (writer == null) {
+      writer = new PrintWriter(new OutputStreamWriter(buffer, getCharacterEncoding()));
+    }
+    return writer;
+  }
+
+  /** The body is sent by CachingFilter, which sets the length itself. */
+  @Override
+  public void setContentLength(int len) {}
+
+  @Override
+  public void setContentLengthLong(long len) {}
+
+  @Override
+  public void flushBuffer() {
+    if (writer != null) {
+      writer.flush();
+    }
+  }
+
+  @Override
+  public void resetBuffer() {
+    super.resetBuffer();
+    flushBuffer();
+    buffer.reset();
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    flushBuffer();
+    buffer.reset();
+  }
+
+  /** Returns the body written so far. */
+  byte[] getBody() {
+    flushBuffer();
+    return buffer.toByteArray();
+  }
+}
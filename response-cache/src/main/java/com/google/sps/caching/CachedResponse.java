@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.caching;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+
+/**
+ * A response body kept by ResponseCache, with its content type and ETag.
+ */
+final class CachedResponse {
+
+  /** Approximate memory taken by an entry besides its body. */
+  private static final int OVERHEAD_BYTES = 256;
+
+  private final byte[] body;
+  private final String contentType;
+  private final String etag;
+  private final Set<String> tags;
+  private final long createdMillis;
+
+  CachedResponse(byte[] body, String contentType, Set<String> tags) {
+    this.body = body;
+    this.contentType = contentType;
+    this.etag = computeEtag(body, contentType);
+    this.tags = tags;
+    this.createdMillis = System.currentTimeMillis();
+  }
+
+  byte[] getBody() {
+    return body;
+  }
+
+  String getContentType() {
+    return contentType;
+  }
+
+  /** Returns the strong ETag of the body, quoted. */
+  String getEtag() {
+    return etag;
+  }
+
+  Set<String> getTags() {
+    return tags;
+  }
+
+  long getCreatedMillis() {
+    return createdMillis;
+  }
+
+  long getSizeBytes() {
+    return body.length + OVERHEAD_BYTES;
+  }
+
+  /**
+   * The ETag only depends on the bytes sent, so every instance computes the same one for the same
+   * response and a browser can revalidate against any of them.
+   */
+  private static String computeEtag(byte[] body, String contentType) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    if (contentType != null) {
+      digest.update(contentType.getBytes(StandardCharsets.UTF_8));
+    }
+    digest.update((byte) 0);
+    byte[] hash = digest.digest(body);
+    StringBuilder etag = new StringBuilder("\"");
+    for (int i = 0; i < 16; i++) {
+      etag.append(String.format("%02x", hash[i]));
+    }
+    return etag.append('"').toString();
+  }
+}
@@ -0,0 +1,131 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.caching;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Serves GET requests from ResponseCache. On a miss the servlet runs with its body buffered, and
+ * the body is cached if the servlet tagged it with ResponseCache.tag(...). Tagged responses carry
+ * an ETag, and requests whose If-None-Match matches it get a 304 without a body.
+ *
+ * <p>This class is shared by several webapps, so it has no @WebFilter of its own. Each webapp
+ * registers it for the paths it caches with an empty subclass annotated with @WebFilter.
+ */
+public class CachingFilter implements Filter {
+
+  @Override
+  public void init(FilterConfig filterConfig) {}
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    HttpServletRequest httpRequest = (HttpServletRequest) request;
+    HttpServletResponse httpResponse = (HttpServletResponse) response;
+    if (!"GET".equals(httpRequest.getMethod())) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    ResponseCache cache = ResponseCache.getInstance();
+    String key = getKey(httpRequest);
+    CachedResponse cached = cache.get(key);
+    if (cached != null) {
+      send(cached, httpRequest, httpResponse);
+      return;
+    }
+
+    long startGeneration = cache.getGeneration();
+    BufferedResponse bufferedResponse = new BufferedResponse(httpResponse);
+    chain.doFilter(request, bufferedResponse);
+    if (httpResponse.isCommitted()) {
+      // The servlet sent an error or a redirect.
+      return;
+    }
+
+    byte[] body = bufferedResponse.getBody();
+    Set<String> tags = ResponseCache.getTags(request);
+    if (tags.isEmpty() || httpResponse.getStatus() != HttpServletResponse.SC_OK) {
+      httpResponse.setContentLength(body.length);
+      httpResponse.getOutputStream().write(body);
+      return;
+    }
+
+    CachedResponse fresh = new CachedResponse(body, httpResponse.getContentType(),
+        Collections.unmodifiableSet(new HashSet<>(tags)));
+    cache.put(key, fresh, startGeneration);
+    send(fresh, httpRequest, httpResponse);
+  }
+
+  private static String getKey(HttpServletRequest request) {
+    String queryString = request.getQueryString();
+    return queryString == null
+        ? request.getRequestURI()
+        : request.getRequestURI() + "?" + queryString;
+  }
+
+  /**
+   * Sends cached, or a 304 if the client already has it. Browsers are asked to revalidate every
+   * time, so a write shows up in the next request.
+   */
+  private static void send(CachedResponse cached, HttpServletRequest request,
+      HttpServletResponse response) throws IOException {
+    response.setHeader("ETag", cached.getEtag());
+    response.setHeader("Cache-Control", "no-cache");
+    if (matches(request.getHeader("If-None-Match"), cached.getEtag())) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+    if (cached.getContentType() != null) {
+      response.setContentType(cached.getContentType());
+    }
+    response.setContentLength(cached.getBody().length);
+    response.getOutputStream().write(cached.getBody());
+  }
+
+  /**
+   * Returns true if the If-None-Match header lists etag. Weak validators also match, since a
+   * front end that compresses the response may weaken the ETag it forwards.
+   */
+  static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals("*") || candidate.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void destroy() {}
+}
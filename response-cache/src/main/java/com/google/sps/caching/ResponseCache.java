@@ -0,0 +1,169 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.caching;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.servlet.ServletRequest;
+
+/**
+ * Response bodies kept in memory by CachingFilter, up to MAX_BYTES in total, evicting the least
+ * recently used ones first. Servlets opt in by tagging their response with tag(request, ...), and
+ * writes drop every response with a tag through invalidate(...).
+ *
+ * The cache belongs to one instance and invalidate(...) only reaches that instance, so entries
+ * also expire after MAX_AGE_MILLIS. That bounds how long other instances serve stale responses.
+ */
+public final class ResponseCache {
+
+  /** Total size of the cached bodies. A system property, set in appengine-web.xml on App Engine. */
+  static final long MAX_BYTES = Long.getLong("sps.cache.maxBytes", 8 * 1024 * 1024);
+
+  /** Time after which a cached response is read again. Set like MAX_BYTES. */
+  static final long MAX_AGE_MILLIS = Long.getLong("sps.cache.maxAgeMillis", 10_000);
+
+  private static final String TAGS_ATTRIBUTE = ResponseCache.class.getName() + ".tags";
+
+  private static final ResponseCache instance = new ResponseCache(MAX_BYTES, MAX_AGE_MILLIS);
+
+  private final long maxBytes;
+  private final long maxAgeMillis;
+
+  // Guarded by this.
+  private final LinkedHashMap<String, CachedResponse> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, Long> invalidationGenerations = new HashMap<>();
+  private long generation = 0;
+  private long sizeBytes = 0;
+
+  ResponseCache(long maxBytes, long maxAgeMillis) {
+    this.maxBytes = maxBytes;
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  static ResponseCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * Marks the response to request as cacheable, invalidated by any of tags. Responses that are not
+   * tagged, or do not end with status 200, are never cached.
+   */
+  public static void tag(ServletRequest request, String... tags) {
+    @SuppressWarnings("unchecked")
+    Set<String> requestTags = (Set<String>) request.getAttribute(TAGS_ATTRIBUTE);
+    if (requestTags == null) {
+      requestTags = new HashSet<>();
+      request.setAttribute(TAGS_ATTRIBUTE, requestTags);
+    }
+    requestTags.addAll(Arrays.asList(tags));
+  }
+
+  /**
+   * Drops every cached response tagged with any of tags. Responses that were being generated when
+   * this was called are not cached either, since they may have read the old data.
+   */
+  public static void invalidate(String... tags) {
+    instance.invalidateTags(tags);
+  }
+
+  /** Returns the tags of the response to request, or an empty Set if it was not tagged. */
+  @SuppressWarnings("unchecked")
+  static Set<String> getTags(ServletRequest request) {
+    Set<String> tags = (Set<String>) request.getAttribute(TAGS_ATTRIBUTE);
+    return tags == null ? Collections.emptySet() : tags;
+  }
+
+  /**
+   * Returns the current generation, to be passed to put(...) with the response generated after
+   * this call.
+   */
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  /** Returns the cached response for key, or null if there is none or it expired. */
+  synchronized CachedResponse get(String key) {
+    CachedResponse response = entries.get(key);
+    if (response == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - response.getCreatedMillis() > maxAgeMillis) {
+      remove(key);
+      return null;
+    }
+    return response;
+  }
+
+  /**
+   * Caches response for key, unless one of its tags was invalidated after startGeneration or it
+   * is larger than the whole cache.
+   */
+  synchronized void put(String key, CachedResponse response, long startGeneration) {
+    long size = response.getSizeBytes();
+    if (size > maxBytes) {
+      return;
+    }
+    for (String tag : response.getTags()) {
+      Long invalidated = invalidationGenerations.get(tag);
+      if (invalidated != null && invalidated > startGeneration) {
+        return;
+      }
+    }
+    remove(key);
+    entries.put(key, response);
+    sizeBytes += size;
+
+    // Evict the least recently used responses.
+    Iterator<CachedResponse> iterator = entries.values().iterator();
+    while (sizeBytes > maxBytes && iterator.hasNext()) {
+      sizeBytes -= iterator.next().getSizeBytes();
+      iterator.remove();
+    }
+  }
+
+  synchronized void invalidateTags(String... tags) {
+    generation++;
+    for (String tag : tags) {
+      invalidationGenerations.put(tag, generation);
+    }
+    Set<String> tagSet = new HashSet<>(Arrays.asList(tags));
+    Iterator<CachedResponse> iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      CachedResponse response = iterator.next();
+      if (!Collections.disjoint(response.getTags(), tagSet)) {
+        sizeBytes -= response.getSizeBytes();
+        iterator.remove();
+      }
+    }
+  }
+
+  synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  private void remove(String key) {
+    CachedResponse previous = entries.remove(key);
+    if (previous != null) {
+      sizeBytes -= previous.getSizeBytes();
+    }
+  }
+}
@@ -17,6 +17,8 @@ package com.google.sps.servlets;
 import com.google.sps.data.SubtractionGame;
 import com.google.gson.Gson;
 import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -26,6 +28,8 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/subtraction-game")
 public final class SubtractionServlet extends HttpServlet {
 
+  private static final Logger logger = Logger.getLogger(SubtractionServlet.class.getName());
+
   private SubtractionGame game = new SubtractionGame();
 
   @Override
@@ -66,13 +70,13 @@ public final class SubtractionServlet extends HttpServlet {
     try {
       playerChoice = Integer.parseInt(playerChoiceString);
     } catch (NumberFormatException e) {
-      System.err.println("Could not convert to int: " + playerChoiceString);
+      logger.log(Level.WARNING, "Could not convert to int: {0}", playerChoiceString);
       return -1;
     }
 
     // Check that the input is between 1 and 3.
     if (playerChoice < 1 || playerChoice > 3) {
-      System.err.println("Player choice is out of range: " + playerChoiceString);
+      logger.log(Level.WARNING, "Player choice is out of range: {0}", playerChoiceString);
       return -1;
     }
 
@@ -14,6 +14,12 @@
 
 package com.google.sps.data;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
 /** An item on a todo list. */
 public final class Task {
 
@@ -26,4 +32,48 @@ public final class Task {
     this.title = title;
     this.timestamp = timestamp;
   }
-}
\ No newline at end of file
+
+  /** Converts tasks to and from JSON without reflection. */
+  public static final class JsonAdapter extends TypeAdapter<Task> {
+
+    @Override
+    public void write(JsonWriter out, Task task) throws IOException {
+      out.beginObject();
+      out.name("id").value(task.id);
+      out.name("title").value(task.title);
+      out.name("timestamp").value(task.timestamp);
+      out.endObject();
+    }
+
+    @Override
+    public Task read(JsonReader in) throws IOException {
+      long id = 0;
+      String title = null;
+      long timestamp = 0;
+
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "id":
+            id = in.nextLong();
+            break;
+          case "title":
+            title = in.nextString();
+            break;
+          case "timestamp":
+            timestamp = in.nextLong();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new Task(id, title, timestamp);
+    }
+  }
+}
@@ -21,8 +21,10 @@ import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Query.SortDirection;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.sps.data.Task;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
 import javax.servlet.annotation.WebServlet;
@@ -34,6 +36,10 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/list-tasks")
 public class ListTasksServlet extends HttpServlet {
 
+  /** Shared by every request, since Gson is thread-safe and expensive to build. */
+  private static final Gson GSON =
+      new GsonBuilder().registerTypeAdapter(Task.class, new Task.JsonAdapter().nullSafe()).create();
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     Query query = new Query("Task").addSort("timestamp", SortDirection.DESCENDING);
@@ -51,9 +57,9 @@ public class ListTasksServlet extends HttpServlet {
       tasks.add(task);
     }
 
-    Gson gson = new Gson();
-
     response.setContentType("application/json;");
-    response.getWriter().println(gson.toJson(tasks));
+    PrintWriter writer = response.getWriter();
+    GSON.toJson(tasks, writer);
+    writer.println();
   }
 }
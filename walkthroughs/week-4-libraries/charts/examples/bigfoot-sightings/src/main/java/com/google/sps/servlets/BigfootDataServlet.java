@@ -15,6 +15,7 @@
 package com.google.sps.servlets;
 
 import com.google.gson.Gson;
+import com.google.sps.caching.ResponseCache;
 import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Scanner;
@@ -27,6 +28,9 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/bigfoot-data")
 public class BigfootDataServlet extends HttpServlet {
 
+  /** Cache tag of the sightings, see ResponseCache. They never change, so it is never invalidated. */
+  private static final String CACHE_TAG = "bigfoot-sightings";
+
   private LinkedHashMap<Integer, Integer> bigfootSightings = new LinkedHashMap<>();
 
   @Override
@@ -47,9 +51,9 @@ public class BigfootDataServlet extends HttpServlet {
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    ResponseCache.tag(request, CACHE_TAG);
     response.setContentType("application/json");
-    Gson gson = new Gson();
-    String json = gson.toJson(bigfootSightings);
-    response.getWriter().println(json);
+    response.setCharacterEncoding("UTF-8");
+    response.getWriter().print(new Gson().toJson(bigfootSightings));
   }
 }
@@ -15,6 +15,7 @@
 package com.google.sps.servlets;
 
 import com.google.gson.Gson;
+import com.google.sps.caching.ResponseCache;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -28,21 +29,33 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/color-data")
 public class ColorDataServlet extends HttpServlet {
 
+  /** Cache tag of the votes, see ResponseCache. Invalidated by every vote. */
+  private static final String CACHE_TAG = "color-votes";
+
+  // Guarded by this.
   private Map<String, Integer> colorVotes = new HashMap<>();
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String json;
+    synchronized (this) {
+      json = new Gson().toJson(colorVotes);
+    }
+
+    ResponseCache.tag(request, CACHE_TAG);
     response.setContentType("application/json");
-    Gson gson = new Gson();
-    String json = gson.toJson(colorVotes);
-    response.getWriter().println(json);
+    response.setCharacterEncoding("UTF-8");
+    response.getWriter().print(json);
   }
 
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     String color = request.getParameter("color");
-    int currentVotes = colorVotes.containsKey(color) ? colorVotes.get(color) : 0;
-    colorVotes.put(color, currentVotes + 1);
+    synchronized (this) {
+      int currentVotes = colorVotes.containsKey(color) ? colorVotes.get(color) : 0;
+      colorVotes.put(color, currentVotes + 1);
+    }
+    ResponseCache.invalidate(CACHE_TAG);
 
     response.sendRedirect("/index.html");
   }
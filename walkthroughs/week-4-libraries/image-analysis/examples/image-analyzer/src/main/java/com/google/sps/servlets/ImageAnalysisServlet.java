@@ -30,6 +30,7 @@ import com.google.cloud.vision.v1.Feature;
 import com.google.cloud.vision.v1.Image;
 import com.google.cloud.vision.v1.ImageAnnotatorClient;
 import com.google.protobuf.ByteString;
+import com.google.sps.resilience.Dependency;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -38,6 +39,9 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -50,6 +54,18 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/image-analysis")
 public class ImageAnalysisServlet extends HttpServlet {
 
+  private static final Logger logger = Logger.getLogger(ImageAnalysisServlet.class.getName());
+
+  /**
+   * The Vision API, which can take several seconds to label a large image. When it is slow or
+   * down, the image is shown without labels instead of waiting for it on every request thread of
+   * the instance.
+   */
+  private static final Dependency VISION_API = Dependency.newBuilder("vision")
+      .setMaxConcurrentCalls(10)
+      .setTimeout(10, TimeUnit.SECONDS)
+      .build();
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
 
@@ -72,7 +88,10 @@ public class ImageAnalysisServlet extends HttpServlet {
 
     // Get the labels of the image that the user uploaded.
     byte[] blobBytes = getBlobBytes(blobKey);
-    List<EntityAnnotation> imageLabels = getImageLabels(blobBytes);
+    List<EntityAnnotation> imageLabels = VISION_API.call(() -> getImageLabels(blobBytes), e -> {
+      logger.log(Level.WARNING, "Could not get image labels: {0}", e.getMessage());
+      return null;
+    });
 
     // Output some HTML that shows the data the user entered.
     // A real codebase would probably store these in Datastore.
@@ -81,6 +100,10 @@ public class ImageAnalysisServlet extends HttpServlet {
     out.println("<a href=\"" + imageUrl + "\">");
     out.println("<img src=\"" + imageUrl + "\" />");
     out.println("</a>");
+    if (imageLabels == null) {
+      out.println("<p>The labels are not available right now, please try again later.</p>");
+      return;
+    }
     out.println("<p>Here are the labels we extracted:</p>");
     out.println("<ul>");
     for (EntityAnnotation label : imageLabels) {
@@ -146,7 +169,7 @@ public class ImageAnalysisServlet extends HttpServlet {
 
   /**
    * Uses the Google Cloud Vision API to generate a list of labels that apply to the image
-   * represented by the binary data stored in imgBytes.
+   * represented by the binary data stored in imgBytes. Returns null if the API returned an error.
    */
   private List<EntityAnnotation> getImageLabels(byte[] imgBytes) throws IOException {
     ByteString byteString = ByteString.copyFrom(imgBytes);
@@ -158,14 +181,16 @@ public class ImageAnalysisServlet extends HttpServlet {
     List<AnnotateImageRequest> requests = new ArrayList<>();
     requests.add(request);
 
-    ImageAnnotatorClient client = ImageAnnotatorClient.create();
-    BatchAnnotateImagesResponse batchResponse = client.batchAnnotateImages(requests);
-    client.close();
+    BatchAnnotateImagesResponse batchResponse;
+    try (ImageAnnotatorClient client = ImageAnnotatorClient.create()) {
+      batchResponse = client.batchAnnotateImages(requests);
+    }
     List<AnnotateImageResponse> imageResponses = batchResponse.getResponsesList();
     AnnotateImageResponse imageResponse = imageResponses.get(0);
 
     if (imageResponse.hasError()) {
-      System.err.println("Error getting image labels: " + imageResponse.getError().getMessage());
+      logger.log(Level.WARNING, "Error getting image labels: {0}",
+          imageResponse.getError().getMessage());
       return null;
     }
 
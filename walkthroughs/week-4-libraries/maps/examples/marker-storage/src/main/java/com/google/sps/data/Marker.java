@@ -14,6 +14,12 @@
 
 package com.google.sps.data;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
 /** Represents a marker on the map. */
 public class Marker {
 
@@ -38,4 +44,48 @@ public class Marker {
   public String getContent() {
     return content;
   }
+
+  /** Converts markers to and from JSON without reflection. */
+  public static final class JsonAdapter extends TypeAdapter<Marker> {
+
+    @Override
+    public void write(JsonWriter out, Marker marker) throws IOException {
+      out.beginObject();
+      out.name("lat").value(marker.lat);
+      out.name("lng").value(marker.lng);
+      out.name("content").value(marker.content);
+      out.endObject();
+    }
+
+    @Override
+    public Marker read(JsonReader in) throws IOException {
+      double lat = 0;
+      double lng = 0;
+      String content = null;
+
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "lat":
+            lat = in.nextDouble();
+            break;
+          case "lng":
+            lng = in.nextDouble();
+            break;
+          case "content":
+            content = in.nextString();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new Marker(lat, lng, content);
+    }
+  }
 }
@@ -21,7 +21,9 @@ import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.sps.data.Marker;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import javax.servlet.annotation.WebServlet;
@@ -35,16 +37,20 @@ import org.jsoup.safety.Whitelist;
 @WebServlet("/markers")
 public class MarkerServlet extends HttpServlet {
 
+  /** Shared by every request, since Gson is thread-safe and expensive to build. */
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(Marker.class, new Marker.JsonAdapter().nullSafe())
+      .create();
+
   /** Responds with a JSON array containing marker data. */
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     response.setContentType("application/json");
 
     Collection<Marker> markers = getMarkers();
-    Gson gson = new Gson();
-    String json = gson.toJson(markers);
-
-    response.getWriter().println(json);
+    PrintWriter writer = response.getWriter();
+    GSON.toJson(markers, writer);
+    writer.println();
   }
 
   /** Accepts a POST request containing a new marker. */
@@ -14,6 +14,11 @@
 
 package com.google.sps.data;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
 /** Represents a UFO sighting at a specific lat lng point. */
 public class UfoSighting {
   private double lat;
@@ -23,4 +28,38 @@ public class UfoSighting {
     this.lat = lat;
     this.lng = lng;
   }
+
+  /** Converts UFO sightings to and from JSON without reflection. */
+  public static final class JsonAdapter extends TypeAdapter<UfoSighting> {
+
+    @Override
+    public void write(JsonWriter out, UfoSighting sighting) throws IOException {
+      out.beginObject();
+      out.name("lat").value(sighting.lat);
+      out.name("lng").value(sighting.lng);
+      out.endObject();
+    }
+
+    @Override
+    public UfoSighting read(JsonReader in) throws IOException {
+      double lat = 0;
+      double lng = 0;
+
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "lat":
+            lat = in.nextDouble();
+            break;
+          case "lng":
+            lng = in.nextDouble();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new UfoSighting(lat, lng);
+    }
+  }
 }
@@ -16,6 +16,8 @@ package com.google.sps.servlets;
 
 import com.google.sps.data.UfoSighting;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.sps.caching.ResponseCache;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,6 +31,14 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/ufo-data")
 public class UfoDataServlet extends HttpServlet {
 
+  /** Shared by every request, since Gson is thread-safe and expensive to build. */
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(UfoSighting.class, new UfoSighting.JsonAdapter().nullSafe())
+      .create();
+
+  /** Cache tag of the sightings, see ResponseCache. They never change, so it is never invalidated. */
+  private static final String CACHE_TAG = "ufo-sightings";
+
   private Collection<UfoSighting> ufoSightings;
 
   @Override
@@ -50,9 +60,9 @@ public class UfoDataServlet extends HttpServlet {
 
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    ResponseCache.tag(request, CACHE_TAG);
     response.setContentType("application/json");
-    Gson gson = new Gson();
-    String json = gson.toJson(ufoSightings);
-    response.getWriter().println(json);
+    response.setCharacterEncoding("UTF-8");
+    response.getWriter().print(GSON.toJson(ufoSightings));
   }
 }
@@ -0,0 +1,111 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.resilience;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling a dependency after failureThreshold consecutive failures. While the circuit is
+ * open, calls are rejected right away. After openNanos a single probe call is let through: if it
+ * succeeds the circuit closes again, otherwise it stays open for another openNanos.
+ */
+final class CircuitBreaker {
+
+  enum State { CLOSED, OPEN, HALF_OPEN }
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private final LongSupplier nanoTime;
+
+  // Guarded by this.
+  private State state = State.CLOSED;
+  private int consecutiveFailures = 0;
+  private long openedAtNanos = 0;
+  private boolean probeInProgress = false;
+
+  CircuitBreaker(int failureThreshold, long openNanos, LongSupplier nanoTime) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = openNanos;
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * Returns true if a call may be attempted now. Every call that was allowed must then be followed
+   * by exactly one of onSuccess(), onFailure() or onCancelled().
+   */
+  synchronized boolean tryAcquire() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (nanoTime.getAsLong() - openedAtNanos < openNanos) {
+          return false;
+        }
+        state = State.HALF_OPEN;
+        probeInProgress = true;
+        return true;
+      case HALF_OPEN:
+      default:
+        // Only one probe at a time, so a dependency that is still down gets a single call.
+        if (probeInProgress) {
+          return false;
+        }
+        probeInProgress = true;
+        return true;
+    }
+  }
+
+  synchronized void onSuccess() {
+    state = State.CLOSED;
+    consecutiveFailures = 0;
+    probeInProgress = false;
+  }
+
+  /** Returns true if this failure opened the circuit. */
+  synchronized boolean onFailure() {
+    switch (state) {
+      case CLOSED:
+        consecutiveFailures++;
+        if (consecutiveFailures < failureThreshold) {
+          return false;
+        }
+        open();
+        return true;
+      case HALF_OPEN:
+        open();
+        return true;
+      case OPEN:
+      default:
+        // A call that started before the circuit opened, the circuit stays open as long as it was.
+        return false;
+    }
+  }
+
+  /** Ends a call that neither succeeded nor failed, e.g. because the caller was interrupted. */
+  synchronized void onCancelled() {
+    probeInProgress = false;
+  }
+
+  synchronized State getState() {
+    return state;
+  }
+
+  private void open() {
+    state = State.OPEN;
+    openedAtNanos = nanoTime.getAsLong();
+    consecutiveFailures = 0;
+    probeInProgress = false;
+  }
+}
@@ -0,0 +1,211 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.resilience;
+
+import com.google.sps.resilience.DependencyUnavailableException.Reason;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Guards the blocking calls to a remote dependency, such as a Google Cloud API, so that a slow or
+ * failing dependency cannot take every request thread of the instance with it:
+ *
+ * <ul>
+ *   <li>A bulkhead limits the calls in progress. Calls over the limit are rejected right away.
+ *   <li>Every call has a deadline. The caller stops waiting at the deadline and the call is
+ *       interrupted, but it keeps its bulkhead slot until it actually returns.
+ *   <li>A circuit breaker stops calling the dependency after consecutive failures and timeouts,
+ *       and lets a single probe call through once in a while to find out if it is back.
+ * </ul>
+ *
+ * Create one Dependency per remote service and share it between requests.
+ */
+public final class Dependency {
+
+  private static final Logger logger = Logger.getLogger(Dependency.class.getName());
+
+  private final String name;
+  private final long timeoutNanos;
+  private final Semaphore bulkhead;
+  private final CircuitBreaker circuitBreaker;
+  private final ExecutorService executor;
+
+  private Dependency(Builder builder) {
+    this.name = builder.name;
+    this.timeoutNanos = builder.timeoutNanos;
+    this.bulkhead = new Semaphore(builder.maxConcurrentCalls);
+    this.circuitBreaker =
+        new CircuitBreaker(builder.failureThreshold, builder.openNanos, builder.nanoTime);
+
+    // The bulkhead bounds the number of threads, since a call only gives back its slot when its
+    // thread is done with it.
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, name + "-call-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public static Builder newBuilder(String name) {
+    return new Builder(name);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the result of call, run with the protections of this dependency.
+   *
+   * @throws DependencyUnavailableException if the call was rejected, failed or timed out
+   */
+  public <T> T call(Callable<T> call) {
+    if (!bulkhead.tryAcquire()) {
+      throw new DependencyUnavailableException(name, Reason.BULKHEAD_FULL, null);
+    }
+    if (!circuitBreaker.tryAcquire()) {
+      bulkhead.release();
+      throw new DependencyUnavailableException(name, Reason.CIRCUIT_OPEN, null);
+    }
+
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        try {
+          return call.call();
+        } finally {
+          bulkhead.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      bulkhead.release();
+      circuitBreaker.onCancelled();
+      throw new DependencyUnavailableException(name, Reason.FAILURE, e);
+    }
+
+    try {
+      T result = future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+      circuitBreaker.onSuccess();
+      return result;
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      onFailure(Reason.TIMEOUT, null);
+      throw new DependencyUnavailableException(name, Reason.TIMEOUT, null);
+    } catch (ExecutionException e) {
+      onFailure(Reason.FAILURE, e.getCause());
+      throw new DependencyUnavailableException(name, Reason.FAILURE, e.getCause());
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      circuitBreaker.onCancelled();
+      Thread.currentThread().interrupt();
+      throw new DependencyUnavailableException(name, Reason.FAILURE, e);
+    }
+  }
+
+  /**
+   * Returns the result of call, or the result of fallback if it was rejected, failed or timed out.
+   */
+  public <T> T call(Callable<T> call, Function<DependencyUnavailableException, T> fallback) {
+    try {
+      return call(call);
+    } catch (DependencyUnavailableException e) {
+      return fallback.apply(e);
+    }
+  }
+
+  CircuitBreaker.State getCircuitState() {
+    return circuitBreaker.getState();
+  }
+
+  int getAvailableSlots() {
+    return bulkhead.availablePermits();
+  }
+
+  private void onFailure(Reason reason, Throwable cause) {
+    if (circuitBreaker.onFailure()) {
+      logger.log(Level.WARNING, "Circuit of " + name + " opened after " + reason, cause);
+    }
+  }
+
+  /** Builds a Dependency. The defaults suit an API call that usually takes under a second. */
+  public static final class Builder {
+    private final String name;
+    private int maxConcurrentCalls = 10;
+    private long timeoutNanos = TimeUnit.SECONDS.toNanos(5);
+    private int failureThreshold = 5;
+    private long openNanos = TimeUnit.SECONDS.toNanos(30);
+    private LongSupplier nanoTime = System::nanoTime;
+
+    private Builder(String name) {
+      this.name = name;
+    }
+
+    /** Calls in progress at the same time. Calls over the limit are rejected right away. */
+    public Builder setMaxConcurrentCalls(int maxConcurrentCalls) {
+      if (maxConcurrentCalls <= 0) {
+        throw new IllegalArgumentException("maxConcurrentCalls must be positive");
+      }
+      this.maxConcurrentCalls = maxConcurrentCalls;
+      return this;
+    }
+
+    /** Time the caller waits for a call before giving up on it. */
+    public Builder setTimeout(long timeout, TimeUnit unit) {
+      if (timeout <= 0) {
+        throw new IllegalArgumentException("timeout must be positive");
+      }
+      this.timeoutNanos = unit.toNanos(timeout);
+      return this;
+    }
+
+    /** Consecutive failures or timeouts that open the circuit. */
+    public Builder setFailureThreshold(int failureThreshold) {
+      if (failureThreshold <= 0) {
+        throw new IllegalArgumentException("failureThreshold must be positive");
+      }
+      this.failureThreshold = failureThreshold;
+      return this;
+    }
+
+    /** Time the circuit stays open before a probe call is let through. */
+    public Builder setOpenDuration(long duration, TimeUnit unit) {
+      this.openNanos = unit.toNanos(duration);
+      return this;
+    }
+
+    /** Replaces System.nanoTime() in tests. */
+    Builder setNanoTime(LongSupplier nanoTime) {
+      this.nanoTime = nanoTime;
+      return this;
+    }
+
+    public Dependency build() {
+      return new Dependency(this);
+    }
+  }
+}
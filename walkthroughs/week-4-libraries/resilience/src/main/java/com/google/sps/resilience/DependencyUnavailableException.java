@@ -0,0 +1,53 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.resilience;
+
+/**
+ * Thrown by Dependency when a call did not return a result, either because it was not attempted or
+ * because it failed or took too long.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Why the call did not return a result. */
+  public enum Reason {
+    /** The dependency already had as many calls in progress as it allows. */
+    BULKHEAD_FULL,
+    /** The circuit breaker is open after too many failures, so the call was not attempted. */
+    CIRCUIT_OPEN,
+    /** The call did not finish before its deadline. */
+    TIMEOUT,
+    /** The call threw an exception, available as the cause. */
+    FAILURE
+  }
+
+  private final String dependencyName;
+  private final Reason reason;
+
+  DependencyUnavailableException(String dependencyName, Reason reason, Throwable cause) {
+    super(dependencyName + " is unavailable: " + reason, cause);
+    this.dependencyName = dependencyName;
+    this.reason = reason;
+  }
+
+  public String getDependencyName() {
+    return dependencyName;
+  }
+
+  public Reason getReason() {
+    return reason;
+  }
+}
@@ -0,0 +1,123 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CircuitBreakerTest {
+  private static final int FAILURE_THRESHOLD = 3;
+  private static final long OPEN_NANOS = 1000;
+
+  private final AtomicLong now = new AtomicLong();
+  private CircuitBreaker circuitBreaker;
+
+  @Before
+  public void setUp() {
+    circuitBreaker = new CircuitBreaker(FAILURE_THRESHOLD, OPEN_NANOS, now::get);
+  }
+
+  @Test
+  public void opensAfterConsecutiveFailures() {
+    fail(FAILURE_THRESHOLD - 1);
+    Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+    fail(1);
+
+    Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    Assert.assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  public void successResetsFailureCount() {
+    fail(FAILURE_THRESHOLD - 1);
+    circuitBreaker.tryAcquire();
+    circuitBreaker.onSuccess();
+    fail(FAILURE_THRESHOLD - 1);
+
+    Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  public void letsOneProbeThroughAfterOpenDuration() {
+    fail(FAILURE_THRESHOLD);
+    now.addAndGet(OPEN_NANOS);
+
+    Assert.assertTrue(circuitBreaker.tryAcquire());
+    Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    Assert.assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  public void successfulProbeClosesCircuit() {
+    fail(FAILURE_THRESHOLD);
+    now.addAndGet(OPEN_NANOS);
+
+    circuitBreaker.tryAcquire();
+    circuitBreaker.onSuccess();
+
+    Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    Assert.assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  public void failedProbeReopensCircuit() {
+    fail(FAILURE_THRESHOLD);
+    now.addAndGet(OPEN_NANOS);
+
+    circuitBreaker.tryAcquire();
+    Assert.assertTrue(circuitBreaker.onFailure());
+
+    Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    now.addAndGet(OPEN_NANOS - 1);
+    Assert.assertFalse(circuitBreaker.tryAcquire());
+    now.addAndGet(1);
+    Assert.assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  public void cancelledProbeLetsAnotherProbeThrough() {
+    fail(FAILURE_THRESHOLD);
+    now.addAndGet(OPEN_NANOS);
+
+    circuitBreaker.tryAcquire();
+    circuitBreaker.onCancelled();
+
+    Assert.assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  public void lateFailureDoesNotExtendOpenCircuit() {
+    fail(FAILURE_THRESHOLD);
+    now.addAndGet(OPEN_NANOS);
+
+    // A call that started before the circuit opened.
+    Assert.assertFalse(circuitBreaker.onFailure());
+
+    Assert.assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  private void fail(int times) {
+    for (int i = 0; i < times; i++) {
+      Assert.assertTrue(circuitBreaker.tryAcquire());
+      circuitBreaker.onFailure();
+    }
+  }
+}
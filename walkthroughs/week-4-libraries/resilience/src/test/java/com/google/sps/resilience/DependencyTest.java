@@ -0,0 +1,223 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.resilience;
+
+import com.google.sps.resilience.DependencyUnavailableException.Reason;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class DependencyTest {
+  private static final int MAX_CONCURRENT_CALLS = 2;
+  private static final int FAILURE_THRESHOLD = 3;
+  private static final long TIMEOUT_MILLIS = 100;
+  private static final long OPEN_SECONDS = 30;
+  private static final String FALLBACK = "fallback";
+
+  private final AtomicLong now = new AtomicLong();
+  private final ExecutorService callers = Executors.newCachedThreadPool();
+  private StubBackend backend;
+  private Dependency dependency;
+
+  @Before
+  public void setUp() {
+    backend = new StubBackend();
+    dependency = Dependency.newBuilder("stub")
+        .setMaxConcurrentCalls(MAX_CONCURRENT_CALLS)
+        .setTimeout(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+        .setFailureThreshold(FAILURE_THRESHOLD)
+        .setOpenDuration(OPEN_SECONDS, TimeUnit.SECONDS)
+        .setNanoTime(now::get)
+        .build();
+  }
+
+  @After
+  public void tearDown() {
+    backend.recover();
+    callers.shutdownNow();
+  }
+
+  @Test
+  public void returnsResultOfHealthyBackend() {
+    Assert.assertEquals(StubBackend.RESPONSE, dependency.call(backend));
+    Assert.assertEquals(MAX_CONCURRENT_CALLS, dependency.getAvailableSlots());
+  }
+
+  @Test
+  public void failureOfBackendIsCause() {
+    IllegalStateException failure = new IllegalStateException("down");
+    backend.fail(failure);
+
+    DependencyUnavailableException e = callAndExpectUnavailable();
+
+    Assert.assertEquals(Reason.FAILURE, e.getReason());
+    Assert.assertSame(failure, e.getCause());
+  }
+
+  @Test
+  public void slowBackendTimesOutAndIsInterrupted() throws Exception {
+    backend.hang(1);
+
+    long start = System.nanoTime();
+    DependencyUnavailableException e = callAndExpectUnavailable();
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    Assert.assertEquals(Reason.TIMEOUT, e.getReason());
+    Assert.assertTrue("Waited " + elapsedMillis + " ms", elapsedMillis < 5 * TIMEOUT_MILLIS);
+    awaitAvailableSlots(MAX_CONCURRENT_CALLS);
+    Assert.assertEquals(1, backend.getInterruptedCalls());
+  }
+
+  @Test
+  public void bulkheadRejectsCallsOverTheLimit() throws Exception {
+    backend.hang(MAX_CONCURRENT_CALLS);
+    Dependency slowDependency = Dependency.newBuilder("slow")
+        .setMaxConcurrentCalls(MAX_CONCURRENT_CALLS)
+        .setTimeout(1, TimeUnit.MINUTES)
+        .build();
+    Future<?>[] calls = new Future<?>[MAX_CONCURRENT_CALLS];
+    for (int i = 0; i < MAX_CONCURRENT_CALLS; i++) {
+      calls[i] = callers.submit(() -> slowDependency.call(backend));
+    }
+    backend.awaitStarted();
+
+    try {
+      slowDependency.call(backend);
+      Assert.fail("Expected the call to be rejected");
+    } catch (DependencyUnavailableException e) {
+      Assert.assertEquals(Reason.BULKHEAD_FULL, e.getReason());
+    }
+    Assert.assertEquals(MAX_CONCURRENT_CALLS, backend.getCalls());
+
+    // Slots are given back when the calls return.
+    backend.recover();
+    for (Future<?> call : calls) {
+      Assert.assertEquals(StubBackend.RESPONSE, call.get(5, TimeUnit.SECONDS));
+    }
+    Assert.assertEquals(StubBackend.RESPONSE, slowDependency.call(backend));
+  }
+
+  @Test
+  public void timedOutCallsKeepTheirSlotUntilTheyReturn() throws Exception {
+    backend.hang(1);
+    backend.ignoreInterrupts();
+
+    for (int i = 0; i < MAX_CONCURRENT_CALLS; i++) {
+      Assert.assertEquals(Reason.TIMEOUT, callAndExpectUnavailable().getReason());
+    }
+    Assert.assertEquals(0, dependency.getAvailableSlots());
+    Assert.assertEquals(Reason.BULKHEAD_FULL, callAndExpectUnavailable().getReason());
+
+    backend.recover();
+    awaitAvailableSlots(MAX_CONCURRENT_CALLS);
+  }
+
+  @Test
+  public void openCircuitFailsFastWithoutCallingBackend() {
+    backend.fail(new IllegalStateException("down"));
+    for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+      callAndExpectUnavailable();
+    }
+    Assert.assertEquals(CircuitBreaker.State.OPEN, dependency.getCircuitState());
+
+    DependencyUnavailableException e = callAndExpectUnavailable();
+
+    Assert.assertEquals(Reason.CIRCUIT_OPEN, e.getReason());
+    Assert.assertEquals(FAILURE_THRESHOLD, backend.getCalls());
+  }
+
+  @Test
+  public void timeoutsOpenCircuit() throws Exception {
+    backend.hang(FAILURE_THRESHOLD);
+    for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+      Assert.assertEquals(Reason.TIMEOUT, callAndExpectUnavailable().getReason());
+    }
+
+    Assert.assertEquals(CircuitBreaker.State.OPEN, dependency.getCircuitState());
+  }
+
+  @Test
+  public void probeClosesCircuitOnceBackendRecovers() {
+    backend.fail(new IllegalStateException("down"));
+    for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+      callAndExpectUnavailable();
+    }
+
+    backend.recover();
+    now.addAndGet(TimeUnit.SECONDS.toNanos(OPEN_SECONDS));
+
+    Assert.assertEquals(StubBackend.RESPONSE, dependency.call(backend));
+    Assert.assertEquals(CircuitBreaker.State.CLOSED, dependency.getCircuitState());
+  }
+
+  @Test
+  public void failedProbeKeepsCircuitOpen() {
+    backend.fail(new IllegalStateException("down"));
+    for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+      callAndExpectUnavailable();
+    }
+    now.addAndGet(TimeUnit.SECONDS.toNanos(OPEN_SECONDS));
+
+    Assert.assertEquals(Reason.FAILURE, callAndExpectUnavailable().getReason());
+
+    Assert.assertEquals(CircuitBreaker.State.OPEN, dependency.getCircuitState());
+    Assert.assertEquals(Reason.CIRCUIT_OPEN, callAndExpectUnavailable().getReason());
+    Assert.assertEquals(FAILURE_THRESHOLD + 1, backend.getCalls());
+  }
+
+  @Test
+  public void fallbackReplacesUnavailableResult() {
+    backend.fail(new IllegalStateException("down"));
+
+    String result = dependency.call(backend, e -> FALLBACK);
+
+    Assert.assertEquals(FALLBACK, result);
+  }
+
+  @Test
+  public void fallbackIsNotUsedForHealthyBackend() {
+    String result = dependency.call(backend, e -> FALLBACK);
+
+    Assert.assertEquals(StubBackend.RESPONSE, result);
+  }
+
+  private DependencyUnavailableException callAndExpectUnavailable() {
+    try {
+      dependency.call(backend);
+    } catch (DependencyUnavailableException e) {
+      return e;
+    }
+    throw new AssertionError("Expected the call to fail");
+  }
+
+  private void awaitAvailableSlots(int slots) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (dependency.getAvailableSlots() != slots) {
+      if (System.nanoTime() > deadline) {
+        Assert.fail("Slots were not given back");
+      }
+      Thread.sleep(10);
+    }
+  }
+}
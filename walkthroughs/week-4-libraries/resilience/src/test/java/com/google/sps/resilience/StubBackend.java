@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.resilience;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for a remote API. It answers right away by default, and can be made to fail or to
+ * hang until released, like a backend that is down or overloaded.
+ */
+final class StubBackend implements Callable<String> {
+  static final String RESPONSE = "response";
+
+  private final AtomicInteger calls = new AtomicInteger();
+  private final AtomicInteger interruptedCalls = new AtomicInteger();
+  private volatile RuntimeException failure = null;
+  private volatile boolean ignoreInterrupts = false;
+  private volatile CountDownLatch release = new CountDownLatch(0);
+  private volatile CountDownLatch started = new CountDownLatch(0);
+
+  @Override
+  public String call() throws InterruptedException {
+    calls.incrementAndGet();
+    started.countDown();
+    while (true) {
+      try {
+        release.await();
+        break;
+      } catch (InterruptedException e) {
+        interruptedCalls.incrementAndGet();
+        if (!ignoreInterrupts) {
+          throw e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return RESPONSE;
+  }
+
+  /** Makes the next calls throw failure. */
+  void fail(RuntimeException failure) {
+    this.failure = failure;
+  }
+
+  /** Makes the next calls return RESPONSE. */
+  void recover() {
+    this.failure = null;
+    release.countDown();
+  }
+
+  /** Makes the next calls hang until recover() or until they are interrupted. */
+  void hang(int expectedCalls) {
+    release = new CountDownLatch(1);
+    started = new CountDownLatch(expectedCalls);
+  }
+
+  /** Makes hanging calls keep hanging when interrupted, like a blocking read without a timeout. */
+  void ignoreInterrupts() {
+    this.ignoreInterrupts = true;
+  }
+
+  /** Waits until the calls expected by hang(...) started. */
+  void awaitStarted() throws InterruptedException {
+    if (!started.await(5, TimeUnit.SECONDS)) {
+      throw new AssertionError("The backend was not called");
+    }
+  }
+
+  int getCalls() {
+    return calls.get();
+  }
+
+  int getInterruptedCalls() {
+    return interruptedCalls.get();
+  }
+}
@@ -17,7 +17,11 @@ package com.google.sps.servlets;
 import com.google.cloud.language.v1.Document;
 import com.google.cloud.language.v1.LanguageServiceClient;
 import com.google.cloud.language.v1.Sentiment;
+import com.google.sps.resilience.Dependency;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -26,23 +30,48 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/sentiment")
 public class SentimentAnalysisServlet extends HttpServlet {
 
+  private static final Logger logger = Logger.getLogger(SentimentAnalysisServlet.class.getName());
+
+  /**
+   * The Natural Language API. When it is slow or down, the page is shown without a score instead
+   * of waiting for it on every request thread of the instance.
+   */
+  private static final Dependency LANGUAGE_API = Dependency.newBuilder("language")
+      .setMaxConcurrentCalls(20)
+      .setTimeout(5, TimeUnit.SECONDS)
+      .build();
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     String message = request.getParameter("message");
 
-    Document doc =
-        Document.newBuilder().setContent(message).setType(Document.Type.PLAIN_TEXT).build();
-    LanguageServiceClient languageService = LanguageServiceClient.create();
-    Sentiment sentiment = languageService.analyzeSentiment(doc).getDocumentSentiment();
-    float score = sentiment.getScore();
-    languageService.close();
+    Float score = LANGUAGE_API.call(() -> getSentimentScore(message), e -> {
+      logger.log(Level.WARNING, "Could not analyze sentiment: {0}", e.getMessage());
+      return null;
+    });
 
     // Output the sentiment score as HTML.
     // A real project would probably store the score alongside the content.
     response.setContentType("text/html;");
     response.getWriter().println("<h1>Sentiment Analysis</h1>");
     response.getWriter().println("<p>You entered: " + message + "</p>");
-    response.getWriter().println("<p>Sentiment analysis score: " + score + "</p>");
+    if (score == null) {
+      response.getWriter().println(
+          "<p>Sentiment analysis is not available right now, please try again later.</p>");
+    } else {
+      response.getWriter().println("<p>Sentiment analysis score: " + score + "</p>");
+    }
     response.getWriter().println("<p><a href=\"/\">Back</a></p>");
   }
+
+  private float getSentimentScore(String message) throws IOException {
+    Document doc =
+        Document.newBuilder().setContent(message).setType(Document.Type.PLAIN_TEXT).build();
+    // Closed even when the call fails or is interrupted at its deadline, so the client and its
+    // channel threads are not leaked.
+    try (LanguageServiceClient languageService = LanguageServiceClient.create()) {
+      Sentiment sentiment = languageService.analyzeSentiment(doc).getDocumentSentiment();
+      return sentiment.getScore();
+    }
+  }
 }
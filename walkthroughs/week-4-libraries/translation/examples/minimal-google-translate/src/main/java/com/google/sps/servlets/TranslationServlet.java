@@ -17,7 +17,12 @@ package com.google.sps.servlets;
 import com.google.cloud.translate.Translate;
 import com.google.cloud.translate.TranslateOptions;
 import com.google.cloud.translate.Translation;
+import com.google.sps.resilience.Dependency;
+import com.google.sps.resilience.DependencyUnavailableException;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -26,6 +31,17 @@ import javax.servlet.http.HttpServletResponse;
 @WebServlet("/translate")
 public class TranslationServlet extends HttpServlet {
 
+  private static final Logger logger = Logger.getLogger(TranslationServlet.class.getName());
+
+  /**
+   * The Translation API. When it is slow or down, requests fail fast instead of waiting for it on
+   * every request thread of the instance.
+   */
+  private static final Dependency TRANSLATION_API = Dependency.newBuilder("translate")
+      .setMaxConcurrentCalls(20)
+      .setTimeout(5, TimeUnit.SECONDS)
+      .build();
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     // Get the request parameters.
@@ -33,14 +49,29 @@ public class TranslationServlet extends HttpServlet {
     String languageCode = request.getParameter("languageCode");
 
     // Do the translation.
-    Translate translate = TranslateOptions.getDefaultInstance().getService();
-    Translation translation =
-        translate.translate(originalText, Translate.TranslateOption.targetLanguage(languageCode));
-    String translatedText = translation.getTranslatedText();
+    String translatedText;
+    try {
+      translatedText = TRANSLATION_API.call(() -> translate(originalText, languageCode));
+    } catch (DependencyUnavailableException e) {
+      logger.log(Level.WARNING, "Could not translate: {0}", e.getMessage());
+      response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      response.setHeader("Retry-After", "30");
+      response.setContentType("text/html; charset=UTF-8");
+      response.getWriter().println(
+          "Translation is not available right now, please try again later.");
+      return;
+    }
 
     // Output the translation.
     response.setContentType("text/html; charset=UTF-8");
     response.setCharacterEncoding("UTF-8");
     response.getWriter().println(translatedText);
   }
+
+  private String translate(String originalText, String languageCode) {
+    Translate translate = TranslateOptions.getDefaultInstance().getService();
+    Translation translation =
+        translate.translate(originalText, Translate.TranslateOption.targetLanguage(languageCode));
+    return translation.getTranslatedText();
+  }
 }
@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.EncodedCalendar;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.SweepLineMeetingQuery;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares finding which events matter to a meeting by looking up attendee names in HashSets with
+ * testing bits of dictionary-encoded attendee ids, both followed by the same sweep. Run it with
+ * -Djmh.args="AttendeeEncodingBenchmark -prof gc" to also see the bytes allocated per query.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AttendeeEncodingBenchmark {
+  private static final int PEOPLE = 1000;
+
+  @Param({"1000", "10000"})
+  public int eventCount;
+
+  @Param({"3", "300"})
+  public int attendeeCount;
+
+  private final SweepLineMeetingQuery sweepLine = new SweepLineMeetingQuery();
+
+  private List<Event> events;
+  private EncodedCalendar calendar;
+  private MeetingRequest request;
+
+  @Setup
+  public void setUp() {
+    RandomCalendar random = new RandomCalendar(42, PEOPLE);
+    events = random.events(eventCount);
+    calendar = new EncodedCalendar(events);
+    request = random.request(attendeeCount, 30);
+    if (!sweepLine.query(events, request).equals(sweepLine.query(calendar, request))) {
+      throw new IllegalStateException("The implementations disagree");
+    }
+  }
+
+  @Benchmark
+  public Collection<TimeRange> stringSets() {
+    return sweepLine.query(events, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> encoded() {
+    return sweepLine.query(calendar, request);
+  }
+
+  /** Reads the attendees of every event, which used to allocate a view per call. */
+  @Benchmark
+  public int getAttendees() {
+    int count = 0;
+    for (Event event : events) {
+      count += event.getAttendees().size();
+    }
+    return count;
+  }
+}
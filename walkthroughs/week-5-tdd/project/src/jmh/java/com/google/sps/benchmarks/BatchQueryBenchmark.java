@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.EventIndex;
+import com.google.sps.MeetingRequest;
+import com.google.sps.SweepLineMeetingQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares answering a batch of meeting requests of the same team one at a time with answering
+ * them all with queryAll, which merges the busy times of each attendee once and runs in parallel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchQueryBenchmark {
+  private static final int PEOPLE = 1000;
+  private static final int TEAM = 100;
+
+  @Param({"10000"})
+  public int eventCount;
+
+  @Param({"100", "1000"})
+  public int requestCount;
+
+  private final SweepLineMeetingQuery sweepLine = new SweepLineMeetingQuery();
+
+  private EventIndex index;
+  private List<MeetingRequest> requests;
+
+  @Setup
+  public void setUp() {
+    RandomCalendar calendar = new RandomCalendar(42, PEOPLE);
+    index = new EventIndex(calendar.events(eventCount));
+    // Candidate meetings of 10 people out of the same team, which share most attendees.
+    RandomCalendar team = new RandomCalendar(7, TEAM);
+    requests = new ArrayList<>();
+    for (int i = 0; i < requestCount; i++) {
+      requests.add(team.request(10, 30));
+    }
+  }
+
+  @Benchmark
+  public int oneAtATime() {
+    int count = 0;
+    for (MeetingRequest request : requests) {
+      count += sweepLine.query(index, request).size();
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int queryAll() {
+    AtomicInteger count = new AtomicInteger();
+    sweepLine.queryAll(index, requests, ForkJoinPool.commonPool(),
+        (position, times) -> count.addAndGet(times.size()));
+    return count.get();
+  }
+}
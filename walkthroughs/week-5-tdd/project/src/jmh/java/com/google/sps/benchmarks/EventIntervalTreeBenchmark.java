@@ -0,0 +1,112 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.EventIntervalTree;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares finding the events at a point and the events overlapping an hour with the interval
+ * tree and by checking every event, over a year of random events. Also measures building the tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class EventIntervalTreeBenchmark {
+  private static final int PEOPLE = 1000;
+  private static final int MINUTES_PER_YEAR = 365 * 24 * 60;
+  private static final int QUERIES = 1024;
+
+  @Param({"1000000"})
+  public int eventCount;
+
+  private List<Event> events;
+  private EventIntervalTree tree;
+  private long[] points;
+  private TimeRange[] windows;
+  private int next = 0;
+
+  @Setup
+  public void setUp() {
+    events = new RandomCalendar(42, PEOPLE).events(eventCount, MINUTES_PER_YEAR);
+    tree = new EventIntervalTree(events);
+    Random random = new Random(7);
+    points = new long[QUERIES];
+    windows = new TimeRange[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      points[i] = random.nextInt(MINUTES_PER_YEAR);
+      windows[i] = TimeRange.fromStartDuration(points[i], 60);
+    }
+  }
+
+  @Benchmark
+  public List<Event> stabTree() {
+    return tree.stab(points[next++ & (QUERIES - 1)]);
+  }
+
+  @Benchmark
+  public List<Event> stabScan() {
+    long point = points[next++ & (QUERIES - 1)];
+    List<Event> result = new ArrayList<>();
+    for (Event event : events) {
+      if (event.getWhen().contains(point)) {
+        result.add(event);
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  public List<Event> overlappingTree() {
+    return tree.overlapping(windows[next++ & (QUERIES - 1)]);
+  }
+
+  @Benchmark
+  public List<Event> overlappingScan() {
+    TimeRange window = windows[next++ & (QUERIES - 1)];
+    List<Event> result = new ArrayList<>();
+    for (Event event : events) {
+      if (event.getWhen().overlaps(window)) {
+        result.add(event);
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public EventIntervalTree build() {
+    return new EventIntervalTree(events);
+  }
+}
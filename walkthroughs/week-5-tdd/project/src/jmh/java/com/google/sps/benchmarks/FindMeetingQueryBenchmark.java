@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.BitsetMeetingQuery;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.SweepLineMeetingQuery;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the implementations of MeetingQuery on a day of random events of 1,000 people, for a
+ * meeting of a few of them. The bitmap marks every busy minute of the relevant events and scans
+ * the whole day, the bitset does the same 64 minutes at a time, and the sweep line only sorts and
+ * merges the relevant events.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FindMeetingQueryBenchmark {
+  private static final int PEOPLE = 1000;
+
+  @Param({"100", "1000", "10000"})
+  public int eventCount;
+
+  @Param({"3", "30", "300"})
+  public int attendeeCount;
+
+  private final FindMeetingQuery bitmap = new FindMeetingQuery();
+  private final SweepLineMeetingQuery sweepLine = new SweepLineMeetingQuery();
+  private final BitsetMeetingQuery bitset = new BitsetMeetingQuery();
+
+  private List<Event> events;
+  private MeetingRequest request;
+
+  @Setup
+  public void setUp() {
+    RandomCalendar calendar = new RandomCalendar(42, PEOPLE);
+    events = calendar.events(eventCount);
+    request = calendar.request(attendeeCount, 30);
+    Collection<TimeRange> expected = bitmap.query(events, request);
+    if (!expected.equals(sweepLine.query(events, request))
+        || !expected.equals(bitset.query(events, request))) {
+      throw new IllegalStateException("The implementations disagree");
+    }
+  }
+
+  @Benchmark
+  public Collection<TimeRange> bitmap() {
+    return bitmap.query(events, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> sweepLine() {
+    return sweepLine.query(events, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> bitset() {
+    return bitset.query(events, request);
+  }
+}
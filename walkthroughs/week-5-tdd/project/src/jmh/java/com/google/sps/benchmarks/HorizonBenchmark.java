@@ -0,0 +1,81 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.SweepLineMeetingQuery;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the sweep line over the same random events stretched over horizons of different lengths,
+ * from a day of minutes to a quarter of seconds, to check that the time depends on the number of
+ * events and not on the length of the horizon.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HorizonBenchmark {
+  private static final int PEOPLE = 1000;
+  private static final int MINUTES_PER_DAY = 24 * 60;
+
+  /** Number of horizon units per minute of the random day. */
+  @Param({"1", "7", "5460"})
+  public long scale;
+
+  @Param({"1000", "10000"})
+  public int eventCount;
+
+  private SweepLineMeetingQuery sweepLine;
+  private List<Event> events;
+  private MeetingRequest request;
+
+  @Setup
+  public void setUp() {
+    RandomCalendar calendar = new RandomCalendar(42, PEOPLE);
+    events = new ArrayList<>();
+    for (Event event : calendar.events(eventCount)) {
+      TimeRange when = event.getWhen();
+      events.add(new Event(event.getTitle(),
+          TimeRange.fromStartDuration(when.start() * scale, when.duration() * scale),
+          event.getAttendees()));
+    }
+    request = new MeetingRequest(calendar.people(30), 30 * scale);
+    sweepLine = new SweepLineMeetingQuery(TimeRange.fromStartDuration(0, MINUTES_PER_DAY * scale));
+  }
+
+  @Benchmark
+  public Collection<TimeRange> sweepLine() {
+    return sweepLine.query(events, request);
+  }
+}
@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates the same calendar of random events and meeting requests on every run, for benchmarks.
+ * Events last from 15 minutes to 2 hours and have 1 to 4 attendees out of a fixed set of people.
+ */
+final class RandomCalendar {
+  private static final int MINUTES_PER_DAY = 24 * 60;
+
+  private final Random random;
+  private final int peopleCount;
+
+  RandomCalendar(long seed, int peopleCount) {
+    this.random = new Random(seed);
+    this.peopleCount = peopleCount;
+  }
+
+  static String person(int index) {
+    return "Person " + index;
+  }
+
+  List<Event> events(int eventCount) {
+    return events(eventCount, MINUTES_PER_DAY);
+  }
+
+  /** Returns eventCount events between minute 0 and minute horizon. */
+  List<Event> events(int eventCount, int horizon) {
+    List<Event> events = new ArrayList<>(eventCount);
+    for (int i = 0; i < eventCount; i++) {
+      int duration = 15 * (1 + random.nextInt(8));
+      int start = random.nextInt(horizon - duration + 1);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          people(1 + random.nextInt(4))));
+    }
+    return events;
+  }
+
+  MeetingRequest request(int attendeeCount, int duration) {
+    return new MeetingRequest(people(attendeeCount), duration);
+  }
+
+  /** Returns count different people. */
+  Set<String> people(int count) {
+    Set<String> people = new HashSet<>();
+    while (people.size() < Math.min(count, peopleCount)) {
+      people.add(person(random.nextInt(peopleCount)));
+    }
+    return people;
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.EventIndex;
+import com.google.sps.JsonCodec;
+import com.google.sps.MeetingRequest;
+import com.google.sps.SweepLineMeetingQuery;
+import com.google.sps.TimeRange;
+import com.google.sps.TimeSlots;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares answering a query as /query does, with TimeRange objects written by Gson and with
+ * packed TimeSlots written directly. Run it with -Djmh.args="SlotEmissionBenchmark -prof gc" to
+ * also see the bytes allocated per query.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SlotEmissionBenchmark {
+  private static final int PEOPLE = 1000;
+
+  @Param({"1000", "10000"})
+  public int eventCount;
+
+  private final SweepLineMeetingQuery sweepLine = new SweepLineMeetingQuery();
+  private final TimeSlots slots = new TimeSlots();
+  private final Writer writer = new DiscardingWriter();
+
+  private EventIndex index;
+  private MeetingRequest request;
+
+  @Setup
+  public void setUp() {
+    RandomCalendar calendar = new RandomCalendar(42, PEOPLE);
+    index = new EventIndex(calendar.events(eventCount));
+    // Few attendees leave many free slots.
+    request = calendar.request(3, 15);
+  }
+
+  @Benchmark
+  public void timeRangesWithGson() throws IOException {
+    Collection<TimeRange> answer = sweepLine.query(index, request);
+    JsonCodec.getGson().toJson(answer, writer);
+  }
+
+  @Benchmark
+  public void packedSlots() throws IOException {
+    sweepLine.query(index, request, slots);
+    slots.writeJson(writer);
+  }
+
+  /** Drops everything written to it, standing in for the response writer. */
+  private static final class DiscardingWriter extends Writer {
+    @Override
+    public void write(char[] buffer, int offset, int length) {}
+
+    @Override
+    public void write(int c) {}
+
+    @Override
+    public void write(String string, int offset, int length) {}
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every attendee name a small int id, in the order they are first seen, so that attendee
+ * sets can be kept as sorted int arrays or bitsets and compared without hashing Strings. Ids are
+ * never reused. Lookups do not lock, while new names are added one at a time.
+ */
+public final class AttendeeDictionary {
+  /** Returned by getId for names that were never added. */
+  public static final int UNKNOWN = -1;
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // The name of each id, guarded by this.
+  private final List<String> names = new ArrayList<>();
+
+  /**
+   * Returns the id of name, giving it the next id if it has none yet.
+   */
+  public int intern(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    synchronized (this) {
+      id = ids.get(name);
+      if (id == null) {
+        id = names.size();
+        names.add(name);
+        ids.put(name, id);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Returns the ids of names, sorted and without duplicates, adding the names that have none yet.
+   */
+  public int[] intern(Collection<String> names) {
+    int[] result = new int[names.size()];
+    int i = 0;
+    for (String name : names) {
+      result[i++] = intern(name);
+    }
+    return sortedUnique(result, i);
+  }
+
+  /**
+   * Returns the id of name, or UNKNOWN if it was never added.
+   */
+  public int getId(String name) {
+    Integer id = ids.get(name);
+    return id == null ? UNKNOWN : id;
+  }
+
+  /**
+   * Returns the name with the given id.
+   */
+  public synchronized String getName(int id) {
+    return names.get(id);
+  }
+
+  /**
+   * Returns the number of names added so far, which is one more than the largest id.
+   */
+  public int size() {
+    return ids.size();
+  }
+
+  /**
+   * Returns a bitset with the bits of the ids of names set. Names that were never added are left
+   * out, since nothing refers to them yet.
+   */
+  public long[] toBitset(Collection<String> names) {
+    long[] bits = new long[(size() + 63) >>> 6];
+    for (String name : names) {
+      int id = getId(name);
+      // Names added after the bitset was sized are not in any event being compared either.
+      if (id != UNKNOWN && (id >>> 6) < bits.length) {
+        bits[id >>> 6] |= 1L << id;
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * Returns true if any of the ids, sorted or not, has its bit set in bits.
+   */
+  public static boolean containsAny(long[] bits, int[] ids) {
+    for (int id : ids) {
+      int word = id >>> 6;
+      if (word < bits.length && (bits[word] & (1L << id)) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if the two sorted arrays of ids have an id in common, walking both at once.
+   */
+  public static boolean intersects(int[] a, int[] b) {
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int[] sortedUnique(int[] values, int length) {
+    Arrays.sort(values, 0, length);
+    int unique = 0;
+    for (int i = 0; i < length; i++) {
+      if (unique == 0 || values[unique - 1] != values[i]) {
+        values[unique++] = values[i];
+      }
+    }
+    return unique == values.length ? values : Arrays.copyOf(values, unique);
+  }
+}
@@ -0,0 +1,146 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds meeting times with the busy minutes of the day packed in 23 longs, one bit per minute,
+ * instead of a boolean per minute. Events are added 64 minutes at a time by ORing a mask into each
+ * word they cover, and free runs are found a word at a time with Long.numberOfTrailingZeros. Like
+ * the bitmap, it only covers the minutes of one day.
+ */
+public final class BitsetMeetingQuery implements MeetingQuery {
+  private static final int DAY_START = TimeRange.START_OF_DAY;
+  private static final int DAY_END = TimeRange.END_OF_DAY + 1;
+  private static final int WORDS = (DAY_END + 63) / 64;
+
+  @Override
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    long duration = request.getDuration();
+    if (duration > DAY_END - DAY_START) {
+      return Collections.emptyList();
+    }
+
+    // The minutes when a required attendee is busy, and those when any attendee is busy.
+    long[] requiredBusy = newDay();
+    long[] everyoneBusy = newDay();
+    Set<String> required = new HashSet<>(request.getAttendees());
+    Set<String> optional = new HashSet<>(request.getOptionalAttendees());
+    for (Event event : events) {
+      int start = (int) Math.max(event.getWhen().start(), DAY_START);
+      int end = (int) Math.min(event.getWhen().end(), DAY_END);
+      if (start >= end) {
+        // Empty, or outside of the day.
+        continue;
+      }
+      if (attendsAny(event, required)) {
+        setRange(requiredBusy, start, end);
+        setRange(everyoneBusy, start, end);
+      } else if (attendsAny(event, optional)) {
+        setRange(everyoneBusy, start, end);
+      }
+    }
+
+    // Prefer the times when the optional attendees can come too. Without required attendees,
+    // those are the only times that work.
+    List<TimeRange> availableTimeSlots = findFreeRuns(everyoneBusy, duration);
+    if (availableTimeSlots.isEmpty() && !required.isEmpty()) {
+      availableTimeSlots = findFreeRuns(requiredBusy, duration);
+    }
+    return availableTimeSlots;
+  }
+
+  /**
+   * Returns the bits of an empty day. The bits after the end of the day are set, so free runs
+   * stop there.
+   */
+  private static long[] newDay() {
+    long[] words = new long[WORDS];
+    setRange(words, DAY_END, WORDS * 64);
+    return words;
+  }
+
+  /** Sets the bits from start, inclusive, to end, exclusive. */
+  private static void setRange(long[] words, int start, int end) {
+    int startWord = start >>> 6;
+    int lastWord = (end - 1) >>> 6;
+    // Shifts only use the lowest 6 bits of the distance, so these are the masks within a word.
+    long startMask = -1L << start;
+    long endMask = -1L >>> -end;
+    if (startWord == lastWord) {
+      words[startWord] |= startMask & endMask;
+      return;
+    }
+    words[startWord] |= startMask;
+    for (int i = startWord + 1; i < lastWord; i++) {
+      words[i] = -1L;
+    }
+    words[lastWord] |= endMask;
+  }
+
+  private static List<TimeRange> findFreeRuns(long[] busy, long duration) {
+    List<TimeRange> freeRuns = new ArrayList<>();
+    int position = DAY_START;
+    while (true) {
+      int freeStart = nextClearBit(busy, position);
+      if (freeStart >= DAY_END) {
+        return freeRuns;
+      }
+      int freeEnd = nextSetBit(busy, freeStart);
+      if (freeEnd - freeStart >= duration) {
+        freeRuns.add(TimeRange.fromStartEnd(freeStart, freeEnd, false));
+      }
+      position = freeEnd;
+    }
+  }
+
+  /** Returns the index of the first set bit at or after from. There is always one. */
+  private static int nextSetBit(long[] words, int from) {
+    int index = from >>> 6;
+    long word = words[index] & (-1L << from);
+    while (word == 0) {
+      word = words[++index];
+    }
+    return (index << 6) + Long.numberOfTrailingZeros(word);
+  }
+
+  /** Returns the index of the first clear bit at or after from, or DAY_END if there is none. */
+  private static int nextClearBit(long[] words, int from) {
+    int index = from >>> 6;
+    long word = ~words[index] & (-1L << from);
+    while (word == 0) {
+      if (++index == words.length) {
+        return DAY_END;
+      }
+      word = ~words[index];
+    }
+    return (index << 6) + Long.numberOfTrailingZeros(word);
+  }
+
+  private static boolean attendsAny(Event event, Set<String> attendees) {
+    for (String attendee : event.getAttendees()) {
+      if (attendees.contains(attendee)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
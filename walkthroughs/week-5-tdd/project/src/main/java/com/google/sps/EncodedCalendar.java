@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * The events of a calendar with their attendees encoded once as sorted arrays of ids of an
+ * AttendeeDictionary, so that queries check who attends each event with int comparisons instead of
+ * String hashing and set lookups. The calendar is read-only.
+ */
+public final class EncodedCalendar {
+  private final AttendeeDictionary dictionary;
+  private final TimeRange[] ranges;
+  private final int[][] attendees;
+
+  /**
+   * Encodes events with a new dictionary.
+   */
+  public EncodedCalendar(Collection<Event> events) {
+    this(events, new AttendeeDictionary());
+  }
+
+  /**
+   * Encodes events with dictionary, adding the attendees that are not in it yet.
+   */
+  public EncodedCalendar(Collection<Event> events, AttendeeDictionary dictionary) {
+    this.dictionary = dictionary;
+    this.ranges = new TimeRange[events.size()];
+    this.attendees = new int[events.size()][];
+    int i = 0;
+    for (Event event : events) {
+      ranges[i] = event.getWhen();
+      attendees[i] = dictionary.intern(event.getAttendees());
+      i++;
+    }
+  }
+
+  public AttendeeDictionary getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Returns the number of events.
+   */
+  public int size() {
+    return ranges.length;
+  }
+
+  /**
+   * Returns the time range of the event at index.
+   */
+  public TimeRange getWhen(int index) {
+    return ranges[index];
+  }
+
+  /**
+   * Returns the sorted ids of the attendees of the event at index. The array is shared and must
+   * not be modified.
+   */
+  int[] attendees(int index) {
+    return attendees[index];
+  }
+}
@@ -0,0 +1,156 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The busy times of each attendee, so that a meeting query only reads the events of the requested
+ * people instead of going through every event. The ranges of each attendee are kept sorted by
+ * start, one per event, in an array that is replaced on every change. Queries read the arrays
+ * without locking, while changes are serialized.
+ */
+public final class EventIndex {
+  private static final TimeRange[] NO_RANGES = new TimeRange[0];
+
+  /** Orders ranges by start, then by end, so equal ranges are next to each other. */
+  private static final Comparator<TimeRange> ORDER_BY_START_AND_END =
+      TimeRange.ORDER_BY_START.thenComparing(TimeRange.ORDER_BY_END);
+
+  private static final EventIndex INSTANCE = new EventIndex(Arrays.asList(Events.events));
+
+  private final Map<String, TimeRange[]> busyRangesByAttendee = new ConcurrentHashMap<>();
+
+  // Number of times each event was added, guarded by this.
+  private final Map<Event, Integer> eventCounts = new HashMap<>();
+
+  private final List<Consumer<Event>> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Returns the index of the events of the calendar, shared by the servlets.
+   */
+  public static EventIndex getInstance() {
+    return INSTANCE;
+  }
+
+  public EventIndex() {}
+
+  public EventIndex(Collection<Event> events) {
+    for (Event event : events) {
+      add(event);
+    }
+  }
+
+  /**
+   * Calls listener with every event added or removed from now on, right after the change and
+   * before the next one. Listeners should be quick, since changes wait for them.
+   */
+  public void addListener(Consumer<Event> listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Adds the time of event to the busy times of each of its attendees.
+   */
+  public synchronized void add(Event event) {
+    eventCounts.merge(event, 1, Integer::sum);
+    for (String attendee : event.getAttendees()) {
+      TimeRange[] ranges = busyRangesByAttendee.getOrDefault(attendee, NO_RANGES);
+      int position = Arrays.binarySearch(ranges, event.getWhen(), ORDER_BY_START_AND_END);
+      if (position < 0) {
+        position = -position - 1;
+      }
+      TimeRange[] updated = new TimeRange[ranges.length + 1];
+      System.arraycopy(ranges, 0, updated, 0, position);
+      updated[position] = event.getWhen();
+      System.arraycopy(ranges, position, updated, position + 1, ranges.length - position);
+      busyRangesByAttendee.put(attendee, updated);
+    }
+    notifyListeners(event);
+  }
+
+  /**
+   * Removes an event that was added before. Returns false, without changing anything, if it was
+   * not.
+   */
+  public synchronized boolean remove(Event event) {
+    Integer count = eventCounts.get(event);
+    if (count == null) {
+      return false;
+    }
+    if (count == 1) {
+      eventCounts.remove(event);
+    } else {
+      eventCounts.put(event, count - 1);
+    }
+
+    for (String attendee : event.getAttendees()) {
+      TimeRange[] ranges = busyRangesByAttendee.get(attendee);
+      int position = Arrays.binarySearch(ranges, event.getWhen(), ORDER_BY_START_AND_END);
+      if (ranges.length == 1) {
+        busyRangesByAttendee.remove(attendee);
+        continue;
+      }
+      TimeRange[] updated = new TimeRange[ranges.length - 1];
+      System.arraycopy(ranges, 0, updated, 0, position);
+      System.arraycopy(ranges, position + 1, updated, position, updated.length - position);
+      busyRangesByAttendee.put(attendee, updated);
+    }
+    notifyListeners(event);
+    return true;
+  }
+
+  /**
+   * Returns the events in the index, each as many times as it was added.
+   */
+  public synchronized List<Event> getEvents() {
+    List<Event> events = new ArrayList<>();
+    for (Map.Entry<Event, Integer> entry : eventCounts.entrySet()) {
+      events.addAll(Collections.nCopies(entry.getValue(), entry.getKey()));
+    }
+    return events;
+  }
+
+  private void notifyListeners(Event event) {
+    for (Consumer<Event> listener : listeners) {
+      listener.accept(event);
+    }
+  }
+
+  /**
+   * Returns the time ranges of the events of attendee, sorted by start.
+   */
+  public List<TimeRange> getBusyRanges(String attendee) {
+    return Collections.unmodifiableList(Arrays.asList(busyRanges(attendee)));
+  }
+
+  /**
+   * Returns the time ranges of the events of attendee, sorted by start. The array is shared and
+   * must not be modified.
+   */
+  TimeRange[] busyRanges(String attendee) {
+    return busyRangesByAttendee.getOrDefault(attendee, NO_RANGES);
+  }
+}
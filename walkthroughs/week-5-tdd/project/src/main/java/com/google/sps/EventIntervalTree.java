@@ -0,0 +1,151 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the events at a point in time or overlapping a window without checking every event. The
+ * events are sorted by start into an array that is read as a balanced binary search tree, where
+ * the middle of each part of the array is the root of that part. Each root also keeps the latest
+ * end of its part, so parts that end before the query are skipped. Queries take O(log n + k) time
+ * for k results. The tree is read-only and built in O(n log n) time.
+ */
+public final class EventIntervalTree {
+  private final Event[] events;
+  private final long[] starts;
+  // The latest end, or start if later, of the part of the tree rooted at each position.
+  private final long[] maxReach;
+
+  public EventIntervalTree(Collection<Event> events) {
+    this.events = events.toArray(new Event[0]);
+    Arrays.sort(this.events,
+        Comparator.comparingLong((Event event) -> event.getWhen().start()));
+    this.starts = new long[this.events.length];
+    this.maxReach = new long[this.events.length];
+    for (int i = 0; i < this.events.length; i++) {
+      starts[i] = this.events[i].getWhen().start();
+    }
+    if (this.events.length > 0) {
+      build(0, this.events.length);
+    }
+  }
+
+  /**
+   * Returns the number of events in the tree.
+   */
+  public int size() {
+    return events.length;
+  }
+
+  /**
+   * Returns the events whose time range contains point, in order of start.
+   */
+  public List<Event> stab(long point) {
+    List<Event> result = new ArrayList<>();
+    stab(0, events.length, point, result);
+    return result;
+  }
+
+  /**
+   * Returns the events whose time range overlaps window, as defined by TimeRange.overlaps, in
+   * order of start.
+   */
+  public List<Event> overlapping(TimeRange window) {
+    List<Event> result = new ArrayList<>();
+    // An event can only overlap the window if it starts by its last point and reaches its start.
+    long lastStart = window.duration() > 0 ? window.end() - 1 : window.start();
+    overlapping(0, events.length, window, lastStart, result);
+    return result;
+  }
+
+  /**
+   * Returns the events that overlap when and share an attendee with attendees, which are the
+   * events that conflict with a meeting of attendees at that time.
+   */
+  public List<Event> conflicts(TimeRange when, Collection<String> attendees) {
+    List<Event> conflicts = new ArrayList<>();
+    for (Event event : overlapping(when)) {
+      for (String attendee : attendees) {
+        if (event.getAttendees().contains(attendee)) {
+          conflicts.add(event);
+          break;
+        }
+      }
+    }
+    return conflicts;
+  }
+
+  private long build(int low, int high) {
+    int middle = (low + high) >>> 1;
+    long reach = reach(events[middle]);
+    if (low < middle) {
+      reach = Math.max(reach, build(low, middle));
+    }
+    if (middle + 1 < high) {
+      reach = Math.max(reach, build(middle + 1, high));
+    }
+    maxReach[middle] = reach;
+    return reach;
+  }
+
+  private void stab(int low, int high, long point, List<Event> result) {
+    if (low >= high) {
+      return;
+    }
+    int middle = (low + high) >>> 1;
+    if (maxReach[middle] <= point) {
+      // Everything here ends by point.
+      return;
+    }
+    stab(low, middle, point, result);
+    if (starts[middle] > point) {
+      // This event and the ones after it start after point.
+      return;
+    }
+    if (events[middle].getWhen().contains(point)) {
+      result.add(events[middle]);
+    }
+    stab(middle + 1, high, point, result);
+  }
+
+  private void overlapping(
+      int low, int high, TimeRange window, long lastStart, List<Event> result) {
+    if (low >= high) {
+      return;
+    }
+    int middle = (low + high) >>> 1;
+    if (maxReach[middle] < window.start()) {
+      return;
+    }
+    overlapping(low, middle, window, lastStart, result);
+    if (starts[middle] > lastStart) {
+      return;
+    }
+    if (events[middle].getWhen().overlaps(window)) {
+      result.add(events[middle]);
+    }
+    overlapping(middle + 1, high, window, lastStart, result);
+  }
+
+  /** Returns the latest time of event, which is its start if its duration is not positive. */
+  private static long reach(Event event) {
+    return Math.max(event.getWhen().start(), event.getWhen().end());
+  }
+}
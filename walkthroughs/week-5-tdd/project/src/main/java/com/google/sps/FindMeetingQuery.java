@@ -22,51 +22,76 @@ import java.util.Set;
 
 /**
  * Processes a query to find time ranges for a new meeting given the attendees required and other
- * events of the day.
+ * events of the day, with times in minutes from the start of the day. Use SweepLineMeetingQuery for
+ * other horizons or time units.
  */
-public final class FindMeetingQuery {
+public final class FindMeetingQuery implements MeetingQuery {
   /**
    * Finds all the available time slots for a meeting given the time required for the meeting, the
-   * people that need to attend that meeting, and other events scheduled for the day. This
-   * algorithm requires an additional space complexity of O(1), accounting for a boolean array of
-   * fixed size (24 * 60) and a strictly smaller array of time ranges. It is O(mn) in time
-   * complexity, 'm' being the number of attendees required for the meeting and 'n' being the
-   * events of the day (the eventAttendees variable is a HashSet, making its lookup O(1), not
-   * adding time complexity to the algorithm).
+   * people that need to attend that meeting, and other events scheduled for the day. If there are
+   * time slots when the optional attendees can also attend, only those are returned. Otherwise,
+   * the time slots of the required attendees are returned, unless there are none, in which case
+   * the optional attendees are treated as required. This algorithm requires an additional space
+   * complexity of O(1), accounting for two boolean arrays of fixed size (24 * 60) and a strictly
+   * smaller array of time ranges. It is O(mn) in time complexity, 'm' being the number of
+   * attendees of the meeting and 'n' being the events of the day (the eventAttendees variable is
+   * a HashSet, making its lookup O(1), not adding time complexity to the algorithm).
    * @param events all the events scheduled for a given day, with their attendees and time range.
-   * @param request the request for a meeting, with their required attendees and minimum duration.
+   * @param request the request for a meeting, with their required and optional attendees and
+   *     minimum duration.
    * @return the available time slots during the day where setting the meeting is possible.
    */
+  @Override
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    // The minutes when a required attendee is busy, and those when any attendee is busy.
     boolean[] unavailableMinutes = new boolean[24 * 60];
+    boolean[] unavailableMinutesWithOptional = new boolean[24 * 60];
     Collection<String> meetingAttendees = request.getAttendees();
+    Collection<String> optionalAttendees = request.getOptionalAttendees();
     long meetingDuration = request.getDuration();
 
     for (Event event : events) {
       Set<String> eventAttendees = event.getAttendees();
-      for (String meetingAttendee : meetingAttendees) {
-        if (eventAttendees.contains(meetingAttendee)) {
-          TimeRange eventTimeRange = event.getWhen();
-          addUnavailableMinutes(unavailableMinutes, eventTimeRange);
-          break;
-        }
+      TimeRange eventTimeRange = event.getWhen();
+      if (attendsAny(eventAttendees, meetingAttendees)) {
+        addUnavailableMinutes(unavailableMinutes, eventTimeRange);
+        addUnavailableMinutes(unavailableMinutesWithOptional, eventTimeRange);
+      } else if (attendsAny(eventAttendees, optionalAttendees)) {
+        addUnavailableMinutes(unavailableMinutesWithOptional, eventTimeRange);
       }
     }
-    
+
     Collection<TimeRange> availableTimeSlots =
-        checkForAvailableTimeSlots(unavailableMinutes, meetingDuration);
+        checkForAvailableTimeSlots(unavailableMinutesWithOptional, meetingDuration);
+    if (availableTimeSlots.isEmpty() && !meetingAttendees.isEmpty()) {
+      availableTimeSlots = checkForAvailableTimeSlots(unavailableMinutes, meetingDuration);
+    }
 
     return availableTimeSlots;
   }
 
   /**
-   * Adds the time range of a specific event to the array of unavailable minutes.
+   * Returns true if any of the attendees of an event is one of the given meeting attendees.
+   */
+  private boolean attendsAny(Set<String> eventAttendees, Collection<String> meetingAttendees) {
+    for (String meetingAttendee : meetingAttendees) {
+      if (eventAttendees.contains(meetingAttendee)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds the time range of a specific event to the array of unavailable minutes. The parts of the
+   * range outside of the day are ignored.
    * @param unavailableMinutes the minutes where other events are happening.
    * @param eventTimeRange the time range of a specific event to be added to unavailableMinutes.
    */
   private void addUnavailableMinutes(boolean[] unavailableMinutes, TimeRange eventTimeRange) {
-    if (eventTimeRange.start() < 0 || eventTimeRange.end() - 1 > 24 * 60 - 1) return;
-    for (int i = eventTimeRange.start(); i <= eventTimeRange.end() - 1; i++) {
+    int start = (int) Math.max(eventTimeRange.start(), 0);
+    int end = (int) Math.min(eventTimeRange.end(), unavailableMinutes.length);
+    for (int i = start; i < end; i++) {
       unavailableMinutes[i] = true;
     }
   }
@@ -90,31 +115,38 @@ public final class FindMeetingQuery {
     int availableTimeSlotStart = 0;
     int availableTimeSlotEnd = 0;
     for (int i = 0; i < unavailableMinutes.length; i++) {
-      if (!unavailableMinutes[i] && !inAvailableTimeSlot) {
-        // If the current minute is available but not in an available time slot, start the
-        // available time slot and set this minute to the start of that time slot.
-        inAvailableTimeSlot = true;
-        availableTimeSlotStart = i;
-      } else if (!unavailableMinutes[i] && inAvailableTimeSlot) {
-        // If the current minute is available and already in an available time slot, update the end
-        // of this time slot to this minute.
+      if (!unavailableMinutes[i]) {
+        // If the current minute is available, start an available time slot on it unless one was
+        // already started, and make it the end of that time slot.
+        if (!inAvailableTimeSlot) {
+          inAvailableTimeSlot = true;
+          availableTimeSlotStart = i;
+        }
         availableTimeSlotEnd = i;
       } else if (inAvailableTimeSlot) {
         // If the current minute is unavailable but inside an available time slot, end the time
         // slot and add it to the list of available time slots if its duration is greater than the
         // required.
         inAvailableTimeSlot = false;
-        if (availableTimeSlotEnd - availableTimeSlotStart + 1 >= duration) {
-          availableTimeSlots.add(TimeRange.fromStartEnd(availableTimeSlotStart, availableTimeSlotEnd, true));
-        }
+        addIfLongEnough(availableTimeSlots, availableTimeSlotStart, availableTimeSlotEnd, duration);
       }
     }
 
     // Check for last available time slot.
     if (inAvailableTimeSlot) {
-      availableTimeSlots.add(TimeRange.fromStartEnd(availableTimeSlotStart, availableTimeSlotEnd, true));
+      addIfLongEnough(availableTimeSlots, availableTimeSlotStart, availableTimeSlotEnd, duration);
     }
 
     return availableTimeSlots;
   }
+
+  /**
+   * Adds the time slot from start to end, both inclusive, if it is at least duration long.
+   */
+  private void addIfLongEnough(
+      List<TimeRange> availableTimeSlots, int start, int end, long duration) {
+    if (end - start + 1 >= duration) {
+      availableTimeSlots.add(TimeRange.fromStartEnd(start, end, true));
+    }
+  }
 }
@@ -0,0 +1,47 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.PrintWriter;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reads and writes the JSON of the servlets with a single shared Gson, since Gson is thread-safe
+ * and building one is expensive. Time ranges use a hand-written TypeAdapter instead of reflection.
+ */
+public final class JsonCodec {
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(TimeRange.class, new TimeRange.JsonAdapter().nullSafe())
+      .create();
+
+  private JsonCodec() {}
+
+  public static Gson getGson() {
+    return GSON;
+  }
+
+  /**
+   * Writes value as the JSON body of the response, straight to the response writer.
+   */
+  public static void writeJson(HttpServletResponse response, Object value) throws IOException {
+    response.setContentType("application/json");
+    PrintWriter writer = response.getWriter();
+    GSON.toJson(value, writer);
+    writer.println();
+  }
+}
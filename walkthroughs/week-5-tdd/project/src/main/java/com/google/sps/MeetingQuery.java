@@ -0,0 +1,29 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * Finds the time ranges of the day when a meeting can take place. Implementations differ in how
+ * they represent the busy times of the attendees, but return the same ranges.
+ */
+public interface MeetingQuery {
+  /**
+   * Returns the ranges of the day, in increasing order, that are at least as long as the requested
+   * meeting and during which none of the requested attendees has an event.
+   */
+  Collection<TimeRange> query(Collection<Event> events, MeetingRequest request);
+}
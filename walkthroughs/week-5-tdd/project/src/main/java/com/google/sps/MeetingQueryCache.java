@@ -0,0 +1,270 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers the answers of a SweepLineMeetingQuery over an EventIndex, since the same teams keep
+ * asking for meetings of the same length. Answers are keyed by the sorted required and optional
+ * attendees and the duration, and are dropped as soon as an event of any of those attendees is
+ * added to or removed from the index. The least recently used answers are dropped when there are
+ * more than maxEntries. Answers are kept packed as TimeSlots.
+ */
+public final class MeetingQueryCache {
+  private final EventIndex index;
+  private final SweepLineMeetingQuery query;
+  private final int maxEntries;
+
+  // All the fields below are guarded by this.
+  private final LinkedHashMap<Key, TimeSlots> answers;
+  private final Map<String, Set<Key>> keysByAttendee = new HashMap<>();
+  // The generation when an event of each attendee last changed.
+  private final Map<String, Long> changedAt = new HashMap<>();
+  private long generation = 0;
+  private long hits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+  private long invalidations = 0;
+
+  public MeetingQueryCache(EventIndex index, SweepLineMeetingQuery query, int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+    this.index = index;
+    this.query = query;
+    this.maxEntries = maxEntries;
+    this.answers = new LinkedHashMap<>(16, 0.75f, true);
+    index.addListener(this::invalidate);
+  }
+
+  /**
+   * Returns the same as query.query(index, request), from the cache when possible.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    TimeSlots slots = new TimeSlots();
+    query(request, slots);
+    return slots.toTimeRanges();
+  }
+
+  /**
+   * Replaces the slots in out with the same as query.query(index, request, out), copied from the
+   * cache when possible.
+   */
+  public void query(MeetingRequest request, TimeSlots out) {
+    Key key = new Key(request);
+    long startGeneration;
+    synchronized (this) {
+      TimeSlots answer = answers.get(key);
+      if (answer != null) {
+        hits++;
+        out.copyFrom(answer);
+        return;
+      }
+      misses++;
+      startGeneration = generation;
+    }
+
+    query.query(index, request, out);
+
+    synchronized (this) {
+      // An answer found while an event of one of its attendees changed may already be stale.
+      if (!changedSince(key, startGeneration)) {
+        put(key, out.copy());
+      }
+    }
+  }
+
+  /**
+   * Returns the counters of the cache so far.
+   */
+  public synchronized Stats getStats() {
+    return new Stats(hits, misses, evictions, invalidations, answers.size());
+  }
+
+  private boolean changedSince(Key key, long startGeneration) {
+    for (String attendee : key.attendees()) {
+      Long changed = changedAt.get(attendee);
+      if (changed != null && changed > startGeneration) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void put(Key key, TimeSlots answer) {
+    if (answers.put(key, answer) != null) {
+      return;
+    }
+    for (String attendee : key.attendees()) {
+      keysByAttendee.computeIfAbsent(attendee, unused -> new HashSet<>()).add(key);
+    }
+    if (answers.size() > maxEntries) {
+      Iterator<Key> eldest = answers.keySet().iterator();
+      Key evicted = eldest.next();
+      eldest.remove();
+      forget(evicted, null);
+      evictions++;
+    }
+  }
+
+  /**
+   * Drops the answers of every key that includes an attendee of event.
+   */
+  private synchronized void invalidate(Event event) {
+    generation++;
+    for (String attendee : event.getAttendees()) {
+      changedAt.put(attendee, generation);
+      Set<Key> keys = keysByAttendee.remove(attendee);
+      if (keys == null) {
+        continue;
+      }
+      for (Key key : keys) {
+        answers.remove(key);
+        forget(key, attendee);
+        invalidations++;
+      }
+    }
+  }
+
+  /**
+   * Removes key from the reverse index of its attendees, except skipped, whose set is being
+   * removed as a whole.
+   */
+  private void forget(Key key, String skipped) {
+    for (String attendee : key.attendees()) {
+      if (attendee.equals(skipped)) {
+        continue;
+      }
+      Set<Key> keys = keysByAttendee.get(attendee);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          keysByAttendee.remove(attendee);
+        }
+      }
+    }
+  }
+
+  /**
+   * The counters of a cache at one point in time.
+   */
+  public static final class Stats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int size;
+    // A field rather than computed in the getter, so that it is also in the JSON.
+    private final double hitRate;
+
+    Stats(long hits, long misses, long evictions, long invalidations, int size) {
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+      this.invalidations = invalidations;
+      this.size = size;
+      this.hitRate = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    /** Returns the answers dropped to stay within maxEntries. */
+    public long getEvictions() {
+      return evictions;
+    }
+
+    /** Returns the answers dropped because an event of one of their attendees changed. */
+    public long getInvalidations() {
+      return invalidations;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    /** Returns the fraction of queries answered from the cache, or 0 before the first query. */
+    public double getHitRate() {
+      return hitRate;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("hits=%d misses=%d hitRate=%.3f evictions=%d invalidations=%d size=%d",
+          hits, misses, hitRate, evictions, invalidations, size);
+    }
+  }
+
+  /**
+   * The canonical form of a request: its attendees sorted, so that the order they were given in
+   * does not matter, and its duration. The hash is computed once.
+   */
+  private static final class Key {
+    private final String[] required;
+    private final String[] optional;
+    private final long duration;
+    private final int hash;
+
+    Key(MeetingRequest request) {
+      required = sorted(request.getAttendees());
+      optional = sorted(request.getOptionalAttendees());
+      duration = request.getDuration();
+      hash = 31 * (31 * Arrays.hashCode(required) + Arrays.hashCode(optional))
+          + Long.hashCode(duration);
+    }
+
+    private static String[] sorted(Collection<String> attendees) {
+      String[] sorted = attendees.toArray(new String[0]);
+      Arrays.sort(sorted);
+      return sorted;
+    }
+
+    /** Returns the required attendees followed by the optional ones. */
+    List<String> attendees() {
+      String[] attendees = Arrays.copyOf(required, required.length + optional.length);
+      System.arraycopy(optional, 0, attendees, required.length, optional.length);
+      return Arrays.asList(attendees);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return hash == key.hash && duration == key.duration
+          && Arrays.equals(required, key.required) && Arrays.equals(optional, key.optional);
+    }
+  }
+}
@@ -39,6 +39,10 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // Read-only views of the attendees, created on first use since Gson does not run constructors.
+  private transient Collection<String> attendeesView;
+  private transient Collection<String> optionalAttendeesView;
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
@@ -48,14 +52,20 @@ public final class MeetingRequest {
    * Returns a read-only copy of the people who are required to attend this meeting.
    */
   public Collection<String> getAttendees() {
-    return Collections.unmodifiableCollection(attendees);
+    if (attendeesView == null) {
+      attendeesView = Collections.unmodifiableCollection(attendees);
+    }
+    return attendeesView;
   }
 
   /**
    * Returns a read-only copy of the people who are optional to attend this meeting.
    */
   public Collection<String> getOptionalAttendees() {
-    return Collections.unmodifiableCollection(optional_attendees);
+    if (optionalAttendeesView == null) {
+      optionalAttendeesView = Collections.unmodifiableCollection(optional_attendees);
+    }
+    return optionalAttendeesView;
   }
 
   /**
@@ -73,4 +83,15 @@ public final class MeetingRequest {
   public long getDuration() {
     return duration;
   }
+
+  /**
+   * Returns true if the request can be answered: both attendee collections are present and hold no
+   * null names, and the duration is positive. Gson does not run the constructor, so a request
+   * parsed from JSON that leaves out "attendees" or "optional_attendees" has a null collection.
+   */
+  public boolean isWellFormed() {
+    return attendees != null && !attendees.contains(null)
+        && optional_attendees != null && !optional_attendees.contains(null)
+        && duration > 0;
+  }
 }
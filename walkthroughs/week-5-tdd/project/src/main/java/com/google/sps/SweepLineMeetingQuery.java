@@ -0,0 +1,423 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Finds meeting times from the time ranges of the relevant events instead of minute by minute. The
+ * starts and ends of the ranges are sorted and swept once, counting how many events of required
+ * and of optional attendees are going on at each point, so the points where a count is zero are
+ * free. It takes O(n log n) time for n relevant events, no matter how long the horizon is or how
+ * fine its time unit, so it also works for a week of minutes or a quarter of seconds since the
+ * epoch.
+ */
+public final class SweepLineMeetingQuery implements MeetingQuery {
+  // Positions are stored relative to the start of the horizon, shifted left by two bits.
+  private static final long MAX_HORIZON = Long.MAX_VALUE >> 2;
+
+  // Kinds of boundaries, in the lowest two bits of each sorted boundary.
+  private static final int REQUIRED_START = 0;
+  private static final int REQUIRED_END = 1;
+  private static final int OPTIONAL_START = 2;
+  private static final int OPTIONAL_END = 3;
+
+  // Buffers reused by the queries of each thread, so that answering does not allocate once they
+  // are big enough.
+  private static final ThreadLocal<Boundaries> BOUNDARIES =
+      ThreadLocal.withInitial(Boundaries::new);
+  private static final ThreadLocal<TimeSlots> REQUIRED_SLOTS =
+      ThreadLocal.withInitial(TimeSlots::new);
+
+  private final TimeRange horizon;
+
+  /**
+   * Finds meeting times within the day, in minutes from the start of the day.
+   */
+  public SweepLineMeetingQuery() {
+    this(TimeRange.WHOLE_DAY);
+  }
+
+  /**
+   * Finds meeting times within horizon, which uses the same time unit as the events. Events are
+   * clipped to the horizon.
+   */
+  public SweepLineMeetingQuery(TimeRange horizon) {
+    if (horizon.duration() <= 0 || horizon.duration() > MAX_HORIZON) {
+      throw new IllegalArgumentException("horizon must be between 1 and 2^61 - 1 units long");
+    }
+    this.horizon = horizon;
+  }
+
+  @Override
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    TimeSlots slots = new TimeSlots();
+    query(events, request, slots);
+    return slots.toTimeRanges();
+  }
+
+  /**
+   * Same as query(events, request), replacing the slots in out with the meeting times.
+   */
+  public void query(Collection<Event> events, MeetingRequest request, TimeSlots out) {
+    long duration = request.getDuration();
+    if (duration > horizon.duration()) {
+      out.clear();
+      return;
+    }
+
+    // Events have few attendees, so look each of them up in the requested attendees rather than
+    // the other way around.
+    Set<String> required = new HashSet<>(request.getAttendees());
+    Set<String> optional = new HashSet<>(request.getOptionalAttendees());
+    Boundaries boundaries = Boundaries.reset(horizon, 2 * events.size());
+    for (Event event : events) {
+      if (attendsAny(event, required)) {
+        boundaries.add(event.getWhen(), REQUIRED_START);
+      } else if (attendsAny(event, optional)) {
+        boundaries.add(event.getWhen(), OPTIONAL_START);
+      }
+    }
+    sweep(horizon, boundaries, duration, !required.isEmpty(), out);
+  }
+
+  /**
+   * Same as query(events, request), for the events in index. Only the events of the requested
+   * attendees are read.
+   */
+  public Collection<TimeRange> query(EventIndex index, MeetingRequest request) {
+    TimeSlots slots = new TimeSlots();
+    query(index, request, slots);
+    return slots.toTimeRanges();
+  }
+
+  /**
+   * Same as query(index, request), replacing the slots in out with the meeting times.
+   */
+  public void query(EventIndex index, MeetingRequest request, TimeSlots out) {
+    query(index::busyRanges, request, out);
+  }
+
+  /**
+   * Answers all the requests against the events in index on pool, and returns once they are all
+   * answered. onResult is called with the position of each request and its meeting times as soon
+   * as they are found, in any order and possibly from several threads at once. The busy times of
+   * each attendee are merged into disjoint ranges once, and shared by every request that includes
+   * them.
+   */
+  public void queryAll(EventIndex index, List<MeetingRequest> requests, ForkJoinPool pool,
+      BiConsumer<Integer, Collection<TimeRange>> onResult) {
+    Map<String, TimeRange[]> mergedRanges = new ConcurrentHashMap<>();
+    Function<String, TimeRange[]> busyRanges = attendee ->
+        mergedRanges.computeIfAbsent(attendee, key -> merge(index.busyRanges(key)));
+    pool.invoke(new QueryAllTask(busyRanges, requests, 0, requests.size(), onResult));
+  }
+
+  /**
+   * Same as query(events, request, out), with the busy times of each attendee sorted by start.
+   */
+  private void query(
+      Function<String, TimeRange[]> busyRanges, MeetingRequest request, TimeSlots out) {
+    long duration = request.getDuration();
+    if (duration > horizon.duration()) {
+      out.clear();
+      return;
+    }
+
+    // An event of both a required and an optional attendee is added twice. That is fine, since
+    // everyone is busy whenever a required attendee is.
+    Collection<String> required = request.getAttendees();
+    Collection<String> optional = request.getOptionalAttendees();
+    TimeRange[][] requiredRanges = busyRanges(busyRanges, required);
+    TimeRange[][] optionalRanges = busyRanges(busyRanges, optional);
+    Boundaries boundaries = Boundaries.reset(
+        horizon, 2 * (countRanges(requiredRanges) + countRanges(optionalRanges)));
+    for (TimeRange[] ranges : requiredRanges) {
+      for (TimeRange range : ranges) {
+        boundaries.add(range, REQUIRED_START);
+      }
+    }
+    for (TimeRange[] ranges : optionalRanges) {
+      for (TimeRange range : ranges) {
+        boundaries.add(range, OPTIONAL_START);
+      }
+    }
+    sweep(horizon, boundaries, duration, !required.isEmpty(), out);
+  }
+
+  /**
+   * Same as query(events, request), for the events of calendar. The requested attendees are
+   * turned into bitsets of ids once, so checking an event only tests a bit per attendee.
+   */
+  public Collection<TimeRange> query(EncodedCalendar calendar, MeetingRequest request) {
+    TimeSlots slots = new TimeSlots();
+    query(calendar, request, slots);
+    return slots.toTimeRanges();
+  }
+
+  /**
+   * Same as query(calendar, request), replacing the slots in out with the meeting times.
+   */
+  public void query(EncodedCalendar calendar, MeetingRequest request, TimeSlots out) {
+    long duration = request.getDuration();
+    if (duration > horizon.duration()) {
+      out.clear();
+      return;
+    }
+
+    AttendeeDictionary dictionary = calendar.getDictionary();
+    long[] required = dictionary.toBitset(request.getAttendees());
+    long[] optional = dictionary.toBitset(request.getOptionalAttendees());
+    Boundaries boundaries = Boundaries.reset(horizon, 2 * calendar.size());
+    for (int i = 0; i < calendar.size(); i++) {
+      int[] attendees = calendar.attendees(i);
+      if (AttendeeDictionary.containsAny(required, attendees)) {
+        boundaries.add(calendar.getWhen(i), REQUIRED_START);
+      } else if (AttendeeDictionary.containsAny(optional, attendees)) {
+        boundaries.add(calendar.getWhen(i), OPTIONAL_START);
+      }
+    }
+    sweep(horizon, boundaries, duration, !request.getAttendees().isEmpty(), out);
+  }
+
+  /**
+   * Sweeps the sorted boundaries once, keeping the free times of everyone in out and those of the
+   * required attendees aside, in case everyone is never free.
+   */
+  private static void sweep(TimeRange horizon, Boundaries boundaries, long duration,
+      boolean hasRequired, TimeSlots out) {
+    long[] sorted = boundaries.sort();
+    TimeSlots requiredSlots = REQUIRED_SLOTS.get();
+    requiredSlots.clear();
+    out.clear();
+    FreeSlots requiredFree = new FreeSlots(duration, requiredSlots);
+    FreeSlots everyoneFree = new FreeSlots(duration, out);
+    int requiredBusy = 0;
+    int optionalBusy = 0;
+    requiredFree.update(horizon.start(), true);
+    everyoneFree.update(horizon.start(), true);
+    for (int i = 0; i < boundaries.size; i++) {
+      long position = horizon.start() + (sorted[i] >> 2);
+      switch ((int) (sorted[i] & 3)) {
+        case REQUIRED_START:
+          requiredBusy++;
+          break;
+        case REQUIRED_END:
+          requiredBusy--;
+          break;
+        case OPTIONAL_START:
+          optionalBusy++;
+          break;
+        default:
+          optionalBusy--;
+      }
+      requiredFree.update(position, requiredBusy == 0);
+      everyoneFree.update(position, requiredBusy == 0 && optionalBusy == 0);
+    }
+
+    // Prefer the times when the optional attendees can come too. Without required attendees,
+    // those are the only times that work.
+    everyoneFree.finish(horizon.end());
+    if (out.size() == 0 && hasRequired) {
+      requiredFree.finish(horizon.end());
+      out.copyFrom(requiredSlots);
+    }
+  }
+
+  private static TimeRange[][] busyRanges(
+      Function<String, TimeRange[]> busyRanges, Collection<String> attendees) {
+    TimeRange[][] ranges = new TimeRange[attendees.size()][];
+    int i = 0;
+    for (String attendee : attendees) {
+      ranges[i++] = busyRanges.apply(attendee);
+    }
+    return ranges;
+  }
+
+  /**
+   * Merges ranges sorted by start into the disjoint ranges covering the same times within the
+   * horizon.
+   */
+  private TimeRange[] merge(TimeRange[] ranges) {
+    List<TimeRange> merged = new ArrayList<>();
+    boolean inRange = false;
+    long start = 0;
+    long end = 0;
+    for (TimeRange range : ranges) {
+      long rangeStart = Math.max(range.start(), horizon.start());
+      long rangeEnd = Math.min(range.end(), horizon.end());
+      if (rangeStart >= rangeEnd) {
+        continue;
+      }
+      if (inRange && rangeStart <= end) {
+        end = Math.max(end, rangeEnd);
+        continue;
+      }
+      if (inRange) {
+        merged.add(TimeRange.fromStartEnd(start, end, false));
+      }
+      inRange = true;
+      start = rangeStart;
+      end = rangeEnd;
+    }
+    if (inRange) {
+      merged.add(TimeRange.fromStartEnd(start, end, false));
+    }
+    return merged.toArray(new TimeRange[0]);
+  }
+
+  private static int countRanges(TimeRange[][] ranges) {
+    int count = 0;
+    for (TimeRange[] attendeeRanges : ranges) {
+      count += attendeeRanges.length;
+    }
+    return count;
+  }
+
+  private static boolean attendsAny(Event event, Set<String> attendees) {
+    for (String attendee : event.getAttendees()) {
+      if (attendees.contains(attendee)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Answers the requests from start to end, splitting them in halves that run in parallel.
+   */
+  private final class QueryAllTask extends RecursiveAction {
+    private final Function<String, TimeRange[]> busyRanges;
+    private final List<MeetingRequest> requests;
+    private final int start;
+    private final int end;
+    private final BiConsumer<Integer, Collection<TimeRange>> onResult;
+
+    QueryAllTask(Function<String, TimeRange[]> busyRanges, List<MeetingRequest> requests,
+        int start, int end, BiConsumer<Integer, Collection<TimeRange>> onResult) {
+      this.busyRanges = busyRanges;
+      this.requests = requests;
+      this.start = start;
+      this.end = end;
+      this.onResult = onResult;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start == 1) {
+        TimeSlots slots = new TimeSlots();
+        query(busyRanges, requests.get(start), slots);
+        onResult.accept(start, slots.toTimeRanges());
+      } else if (end > start) {
+        int middle = (start + end) >>> 1;
+        invokeAll(new QueryAllTask(busyRanges, requests, start, middle, onResult),
+            new QueryAllTask(busyRanges, requests, middle, end, onResult));
+      }
+    }
+  }
+
+  /**
+   * The starts and ends of the busy ranges within the horizon, each packed in a long as its offset
+   * from the start of the horizon followed by its kind in the lowest two bits, so sorting them
+   * sorts by position.
+   */
+  private static final class Boundaries {
+    private long horizonStart;
+    private long horizonEnd;
+    private long[] values = new long[0];
+    private int size = 0;
+
+    // Larger arrays are not kept for the next query, so that a thread does not hold on to them.
+    private static final int MAX_REUSED_CAPACITY = 1 << 16;
+
+    /**
+     * Returns the boundaries of this thread, emptied, for a horizon and with room for capacity
+     * values. They are reused by the next query of the thread, unless they are very large.
+     */
+    static Boundaries reset(TimeRange horizon, int capacity) {
+      Boundaries boundaries =
+          capacity <= MAX_REUSED_CAPACITY ? BOUNDARIES.get() : new Boundaries();
+      boundaries.horizonStart = horizon.start();
+      boundaries.horizonEnd = horizon.end();
+      if (boundaries.values.length < capacity) {
+        boundaries.values = new long[capacity];
+      }
+      boundaries.size = 0;
+      return boundaries;
+    }
+
+    /** Adds the start and end of range, of kind REQUIRED_START or OPTIONAL_START. */
+    void add(TimeRange range, int startKind) {
+      long start = Math.max(range.start(), horizonStart);
+      long end = Math.min(range.end(), horizonEnd);
+      if (start >= end) {
+        // Empty, or outside of the horizon.
+        return;
+      }
+      values[size++] = ((start - horizonStart) << 2) | startKind;
+      values[size++] = ((end - horizonStart) << 2) | (startKind + 1);
+    }
+
+    long[] sort() {
+      Arrays.sort(values, 0, size);
+      return values;
+    }
+  }
+
+  /**
+   * Collects the free runs that are at least a duration long, as the sweep goes through the
+   * horizon.
+   */
+  private static final class FreeSlots {
+    private final long duration;
+    private final TimeSlots slots;
+    private boolean inFreeRun = false;
+    private long freeStart;
+
+    FreeSlots(long duration, TimeSlots slots) {
+      this.duration = duration;
+      this.slots = slots;
+    }
+
+    /** Records whether the time from position until the next update is free. */
+    void update(long position, boolean free) {
+      if (free && !inFreeRun) {
+        inFreeRun = true;
+        freeStart = position;
+      } else if (!free && inFreeRun) {
+        // Boundaries at the same position can end a run right after starting it.
+        if (position > freeStart && position - freeStart >= duration) {
+          slots.add(freeStart, position);
+        }
+        inFreeRun = false;
+      }
+    }
+
+    void finish(long end) {
+      update(end, false);
+    }
+  }
+}
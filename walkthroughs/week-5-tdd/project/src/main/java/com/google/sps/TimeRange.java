@@ -14,11 +14,20 @@
 
 package com.google.sps;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.TemporalUnit;
 import java.util.Comparator;
 
 /**
  * Class representing a span of time, enforcing properties (e.g. start comes before end) and
- * providing methods to make ranges easier to work with (e.g. {@code overlaps}).
+ * providing methods to make ranges easier to work with (e.g. {@code overlaps}). Times are longs in
+ * any unit counted from any origin, as long as the ranges compared use the same ones. The day
+ * helpers below use minutes from the start of the day, while ranges over weeks or of seconds can
+ * use units since the epoch, see {@code getTimeSinceEpoch}.
  */
 public final class TimeRange {
   public static final int START_OF_DAY = getTimeInMinutes(0, 0);
@@ -46,32 +55,32 @@ public final class TimeRange {
     }
   };
 
-  private final int start;
-  private final int duration;
+  private final long start;
+  private final long duration;
 
-  private TimeRange(int start, int duration) {
+  private TimeRange(long start, long duration) {
     this.start = start;
     this.duration = duration;
   }
 
   /**
-   * Returns the start of the range in minutes.
+   * Returns the start of the range.
    */
-  public int start() {
+  public long start() {
     return start;
   }
 
   /**
-   * Returns the number of minutes between the start and end.
+   * Returns the time between the start and end.
    */
-  public int duration() {
+  public long duration() {
     return duration;
   }
 
   /**
    * Returns the end of the range. This ending value is the closing exclusive bound.
    */
-  public int end() {
+  public long end() {
     return start + duration;
   }
 
@@ -112,11 +121,11 @@ public final class TimeRange {
     // We need the inclusive end for this check in order for this case to equal true:
     // |------|
     //     |--|
-    int otherInclusiveEnd = other.start + other.duration - 1;
+    long otherInclusiveEnd = other.start + other.duration - 1;
     return contains(this, other.start) && contains(this, otherInclusiveEnd);
   }
 
-  public boolean contains(int point) {
+  public boolean contains(long point) {
     return contains(this, point);
   }
 
@@ -135,7 +144,7 @@ public final class TimeRange {
     return String.format("Range: [%d, %d)", start, start + duration);
   }
 
-  private static boolean contains(TimeRange range, int point) {
+  private static boolean contains(TimeRange range, long point) {
     // If a range has no duration, it cannot contain anything.
     if (range.duration <= 0) {
       return false;
@@ -168,19 +177,62 @@ public final class TimeRange {
     return (hours * 60) + minutes;
   }
 
+  /**
+   * Returns the number of whole units from the epoch to instant, for example
+   * {@code getTimeSinceEpoch(instant, ChronoUnit.SECONDS)} for ranges of seconds over many days.
+   */
+  public static long getTimeSinceEpoch(Instant instant, TemporalUnit unit) {
+    return unit.between(Instant.EPOCH, instant);
+  }
+
   /**
    * Creates a {@code TimeRange} from {@code start} to {@code end}. Whether or not {@code end} is
    * included in the range will depend on {@code inclusive}. If {@code inclusive} is {@code true},
    * then @{code end} will be in the range.
    */
-  public static TimeRange fromStartEnd(int start, int end, boolean inclusive) {
+  public static TimeRange fromStartEnd(long start, long end, boolean inclusive) {
     return inclusive ? new TimeRange(start, end - start + 1) : new TimeRange(start, end - start);
   }
 
   /**
    * Create a {@code TimeRange} starting at {@code start} with a duration equal to {@code duration}.
    */
-  public static TimeRange fromStartDuration(int start, int duration) {
+  public static TimeRange fromStartDuration(long start, long duration) {
     return new TimeRange(start, duration);
   }
+
+  /**
+   * Converts ranges to and from JSON without reflection, as {"start": ..., "duration": ...}.
+   */
+  public static final class JsonAdapter extends TypeAdapter<TimeRange> {
+    @Override
+    public void write(JsonWriter out, TimeRange range) throws IOException {
+      out.beginObject();
+      out.name("start").value(range.start);
+      out.name("duration").value(range.duration);
+      out.endObject();
+    }
+
+    @Override
+    public TimeRange read(JsonReader in) throws IOException {
+      long start = 0;
+      long duration = 0;
+
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "start":
+            start = in.nextLong();
+            break;
+          case "duration":
+            duration = in.nextLong();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return new TimeRange(start, duration);
+    }
+  }
 }
@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable buffer of time slots, packed as start and end longs in one array, that meeting
+ * queries fill instead of creating a TimeRange per slot. It grows as needed and keeps its capacity
+ * when cleared, so a buffer reused by a thread stops allocating once it is big enough. Not
+ * thread-safe.
+ */
+public final class TimeSlots {
+  private long[] values;
+  private int size = 0;
+  // Digits of the number being written as JSON, filled from the end.
+  private final char[] digits = new char[20];
+
+  public TimeSlots() {
+    this(8);
+  }
+
+  /**
+   * Creates a buffer with room for capacity slots before it grows.
+   */
+  public TimeSlots(int capacity) {
+    values = new long[2 * capacity];
+  }
+
+  /**
+   * Removes all the slots, keeping the capacity.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Adds the slot from start, inclusive, to end, exclusive.
+   */
+  public void add(long start, long end) {
+    if (2 * size == values.length) {
+      values = Arrays.copyOf(values, Math.max(2, 2 * values.length));
+    }
+    values[2 * size] = start;
+    values[2 * size + 1] = end;
+    size++;
+  }
+
+  /**
+   * Replaces the slots with those of other.
+   */
+  public void copyFrom(TimeSlots other) {
+    if (values.length < 2 * other.size) {
+      values = new long[2 * other.size];
+    }
+    System.arraycopy(other.values, 0, values, 0, 2 * other.size);
+    size = other.size;
+  }
+
+  /**
+   * Returns a new buffer with the same slots and no spare capacity.
+   */
+  public TimeSlots copy() {
+    TimeSlots copy = new TimeSlots(size);
+    copy.copyFrom(this);
+    return copy;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long getStart(int index) {
+    checkIndex(index);
+    return values[2 * index];
+  }
+
+  public long getEnd(int index) {
+    checkIndex(index);
+    return values[2 * index + 1];
+  }
+
+  /**
+   * Returns the slots as new time ranges.
+   */
+  public List<TimeRange> toTimeRanges() {
+    List<TimeRange> ranges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ranges.add(TimeRange.fromStartEnd(values[2 * i], values[2 * i + 1], false));
+    }
+    return ranges;
+  }
+
+  /**
+   * Writes the slots as a JSON array of time ranges, the same as Gson writes a collection of
+   * TimeRange with TimeRange.JsonAdapter, without creating any objects.
+   */
+  public void writeJson(Writer writer) throws IOException {
+    writer.write('[');
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writer.write("{\"start\":");
+      writeLong(writer, values[2 * i]);
+      writer.write(",\"duration\":");
+      writeLong(writer, values[2 * i + 1] - values[2 * i]);
+      writer.write('}');
+    }
+    writer.write(']');
+  }
+
+  private void writeLong(Writer writer, long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      // Its absolute value does not fit in a long.
+      writer.write(Long.toString(value));
+      return;
+    }
+    long remaining = Math.abs(value);
+    int position = digits.length;
+    do {
+      digits[--position] = (char) ('0' + remaining % 10);
+      remaining /= 10;
+    } while (remaining > 0);
+    if (value < 0) {
+      digits[--position] = '-';
+    }
+    writer.write(digits, position, digits.length - position);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParseException;
+import com.google.sps.EventIndex;
+import com.google.sps.JsonCodec;
+import com.google.sps.MeetingRequest;
+import com.google.sps.SweepLineMeetingQuery;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers a JSON array of meeting requests in one POST. The requests are answered in parallel and
+ * each answer is sent as soon as it is found, as one line of newline-delimited JSON with the
+ * position of its request: {"index": 3, "times": [...]}.
+ */
+@WebServlet("/query-batch")
+public class BatchQueryServlet extends HttpServlet {
+  private static final int MAX_REQUESTS = 1000;
+
+  private ForkJoinPool pool;
+
+  @Override
+  public void init() {
+    pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public void destroy() {
+    pool.shutdown();
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    MeetingRequest[] meetingRequests;
+    try {
+      meetingRequests = JsonCodec.getGson().fromJson(request.getReader(), MeetingRequest[].class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "The body must be a JSON array.");
+      return;
+    }
+    if (meetingRequests == null || meetingRequests.length > MAX_REQUESTS
+        || Arrays.asList(meetingRequests).contains(null)) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "The body must be an array of up to " + MAX_REQUESTS + " requests.");
+      return;
+    }
+    // Check every request before streaming, since a failure after the first line is flushed can
+    // no longer be answered with a 400.
+    for (int i = 0; i < meetingRequests.length; i++) {
+      if (!meetingRequests[i].isWellFormed()) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Request " + i
+            + " must have \"attendees\", \"optional_attendees\" and a positive \"duration\".");
+        return;
+      }
+    }
+    List<MeetingRequest> requests = Arrays.asList(meetingRequests);
+
+    response.setContentType("application/x-ndjson");
+    response.setCharacterEncoding("UTF-8");
+    PrintWriter writer = response.getWriter();
+    new SweepLineMeetingQuery().queryAll(EventIndex.getInstance(), requests, pool,
+        (index, times) -> {
+          String line = JsonCodec.getGson().toJson(new Result(index, times));
+          // Answers come from several threads, so each line is written and flushed as a whole.
+          synchronized (writer) {
+            writer.println(line);
+            writer.flush();
+          }
+        });
+  }
+
+  /** One line of the response. */
+  private static final class Result {
+    private final int index;
+    private final Collection<TimeRange> times;
+
+    Result(int index, Collection<TimeRange> times) {
+      this.index = index;
+      this.times = times;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParseException;
+import com.google.sps.Event;
+import com.google.sps.EventIndex;
+import com.google.sps.EventIntervalTree;
+import com.google.sps.JsonCodec;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Finds the events that conflict with a proposed meeting, sent as
+ * {"when": {"start": ..., "duration": ...}, "attendees": [...]}, and sends them back as JSON.
+ */
+@WebServlet("/conflicts")
+public class ConflictsServlet extends HttpServlet {
+  private final EventIndex index = EventIndex.getInstance();
+
+  // Incremented on every change to the index. The tree is rebuilt on the first request after a
+  // change, instead of on every request or inside the listener, which would slow every change.
+  private final AtomicLong version = new AtomicLong();
+  private volatile VersionedTree tree;
+
+  @Override
+  public void init() {
+    index.addListener(event -> version.incrementAndGet());
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    ProposedMeeting meeting;
+    try {
+      meeting = JsonCodec.getGson().fromJson(request.getReader(), ProposedMeeting.class);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "The body must be a JSON object.");
+      return;
+    }
+    if (meeting == null || meeting.when == null || meeting.attendees == null) {
+      response.sendError(
+          HttpServletResponse.SC_BAD_REQUEST, "The meeting needs a time and attendees.");
+      return;
+    }
+
+    List<Event> conflicts = getTree().conflicts(meeting.when, meeting.attendees);
+    JsonCodec.writeJson(response, conflicts);
+  }
+
+  /**
+   * Returns a tree of the events in the index, rebuilt if the index changed since the last build.
+   * Concurrent requests after a change may each build one.
+   */
+  private EventIntervalTree getTree() {
+    // Read the version before the events, so a change in between only causes another rebuild.
+    long currentVersion = version.get();
+    VersionedTree current = tree;
+    if (current == null || current.version != currentVersion) {
+      current = new VersionedTree(currentVersion, new EventIntervalTree(index.getEvents()));
+      tree = current;
+    }
+    return current.tree;
+  }
+
+  private static final class VersionedTree {
+    private final long version;
+    private final EventIntervalTree tree;
+
+    private VersionedTree(long version, EventIntervalTree tree) {
+      this.version = version;
+      this.tree = tree;
+    }
+  }
+
+  /** The body of the request. */
+  private static final class ProposedMeeting {
+    private TimeRange when;
+    private Collection<String> attendees;
+  }
+}
@@ -15,7 +15,8 @@
 package com.google.sps.servlets;
 
 import com.google.sps.Events;
-import com.google.gson.Gson;
+import com.google.sps.JsonCodec;
+import com.google.sps.caching.ResponseCache;
 import java.io.IOException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -24,13 +25,15 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  /** Cache tag of the events, see ResponseCache. They never change, so it is never invalidated. */
+  private static final String CACHE_TAG = "events";
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
-
-    // Send the JSON back as the response
+    // Send the events back as the JSON response
+    ResponseCache.tag(request, CACHE_TAG);
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    response.getWriter().print(JsonCodec.getGson().toJson(Events.events));
   }
 }
@@ -14,14 +14,14 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
-import com.google.sps.FindMeetingQuery;
+import com.google.sps.EventIndex;
+import com.google.sps.JsonCodec;
+import com.google.sps.MeetingQueryCache;
 import com.google.sps.MeetingRequest;
-import com.google.sps.TimeRange;
-import com.google.gson.Gson;
+import com.google.sps.SweepLineMeetingQuery;
+import com.google.sps.TimeSlots;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collection;
+import java.io.PrintWriter;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -29,23 +29,28 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/query")
 public class QueryServlet extends HttpServlet {
+  /** The answers of the last requests, shared by the servlets. */
+  public static final MeetingQueryCache CACHE = new MeetingQueryCache(
+      EventIndex.getInstance(), new SweepLineMeetingQuery(),
+      Integer.getInteger("sps.queryCache.maxEntries", 10000));
+
+  // The answer of the request being handled by each thread, reused by its next request.
+  private static final ThreadLocal<TimeSlots> SLOTS = ThreadLocal.withInitial(TimeSlots::new);
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-
     // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
-
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    MeetingRequest meetingRequest = JsonCodec.getGson().fromJson(request.getReader(), MeetingRequest.class);
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+    // Find the possible meeting times, only reading the events of the requested attendees, unless
+    // the same meeting was asked for since those events last changed.
+    TimeSlots answer = SLOTS.get();
+    CACHE.query(meetingRequest, answer);
 
-    // Send the JSON back as the response
+    // Send the times back as the JSON response, written straight from the packed times.
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    PrintWriter writer = response.getWriter();
+    answer.writeJson(writer);
+    writer.println();
   }
 }
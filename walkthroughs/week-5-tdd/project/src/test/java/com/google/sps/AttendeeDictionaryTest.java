@@ -0,0 +1,87 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class AttendeeDictionaryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void idsAreDenseAndStable() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(1, dictionary.intern(PERSON_B));
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+
+    Assert.assertEquals(2, dictionary.size());
+    Assert.assertEquals(PERSON_B, dictionary.getName(1));
+    Assert.assertEquals(1, dictionary.getId(PERSON_B));
+    Assert.assertEquals(AttendeeDictionary.UNKNOWN, dictionary.getId(PERSON_C));
+  }
+
+  @Test
+  public void internedCollectionsAreSortedWithoutDuplicates() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    dictionary.intern(PERSON_C);
+    dictionary.intern(PERSON_A);
+
+    int[] ids = dictionary.intern(Arrays.asList(PERSON_B, PERSON_A, PERSON_C, PERSON_B));
+
+    Assert.assertArrayEquals(new int[] {0, 1, 2}, ids);
+  }
+
+  @Test
+  public void intersects() {
+    Assert.assertTrue(AttendeeDictionary.intersects(new int[] {1, 4, 9}, new int[] {2, 9}));
+    Assert.assertFalse(AttendeeDictionary.intersects(new int[] {1, 4, 9}, new int[] {2, 5}));
+    Assert.assertFalse(AttendeeDictionary.intersects(new int[] {}, new int[] {2, 5}));
+  }
+
+  @Test
+  public void bitsetLeavesOutUnknownNames() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    for (int i = 0; i < 100; i++) {
+      dictionary.intern("Person " + i);
+    }
+
+    long[] bits = dictionary.toBitset(Arrays.asList("Person 3", "Person 70", PERSON_A));
+
+    Assert.assertTrue(AttendeeDictionary.containsAny(bits, new int[] {70}));
+    Assert.assertTrue(AttendeeDictionary.containsAny(bits, new int[] {1, 3}));
+    Assert.assertFalse(AttendeeDictionary.containsAny(bits, new int[] {4, 71}));
+    Assert.assertFalse(AttendeeDictionary.containsAny(
+        dictionary.toBitset(Collections.singleton(PERSON_A)), new int[] {0}));
+  }
+
+  @Test
+  public void bitsetIgnoresIdsAddedAfterIt() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    long[] bits = dictionary.toBitset(Collections.singleton(PERSON_A));
+
+    int id = dictionary.intern(PERSON_A);
+
+    Assert.assertFalse(AttendeeDictionary.containsAny(bits, new int[] {id}));
+  }
+}
@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class EventIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final TimeRange RANGE_0800AM = TimeRange.fromStartDuration(8 * 60, 30);
+  private static final TimeRange RANGE_0900AM = TimeRange.fromStartDuration(9 * 60, 30);
+  private static final TimeRange RANGE_1000AM = TimeRange.fromStartDuration(10 * 60, 30);
+
+  private EventIndex index;
+
+  @Before
+  public void setUp() {
+    index = new EventIndex();
+  }
+
+  @Test
+  public void unknownAttendeeIsNeverBusy() {
+    Assert.assertEquals(Collections.emptyList(), index.getBusyRanges(PERSON_A));
+  }
+
+  @Test
+  public void rangesAreSortedByStart() {
+    index.add(new Event("Event 1", RANGE_1000AM, Arrays.asList(PERSON_A)));
+    index.add(new Event("Event 2", RANGE_0800AM, Arrays.asList(PERSON_A, PERSON_B)));
+    index.add(new Event("Event 3", RANGE_0900AM, Arrays.asList(PERSON_A)));
+
+    Assert.assertEquals(Arrays.asList(RANGE_0800AM, RANGE_0900AM, RANGE_1000AM),
+        index.getBusyRanges(PERSON_A));
+    Assert.assertEquals(Arrays.asList(RANGE_0800AM), index.getBusyRanges(PERSON_B));
+  }
+
+  @Test
+  public void removeOnlyRemovesThatEvent() {
+    Event event = new Event("Event 1", RANGE_0800AM, Arrays.asList(PERSON_A, PERSON_B));
+    index.add(event);
+    index.add(new Event("Event 2", RANGE_0800AM, Arrays.asList(PERSON_A)));
+
+    Assert.assertTrue(index.remove(event));
+
+    Assert.assertEquals(Arrays.asList(RANGE_0800AM), index.getBusyRanges(PERSON_A));
+    Assert.assertEquals(Collections.emptyList(), index.getBusyRanges(PERSON_B));
+  }
+
+  @Test
+  public void removeUnknownEventChangesNothing() {
+    index.add(new Event("Event 1", RANGE_0800AM, Arrays.asList(PERSON_A)));
+
+    Assert.assertFalse(index.remove(new Event("Event 2", RANGE_0800AM, Arrays.asList(PERSON_A))));
+
+    Assert.assertEquals(Arrays.asList(RANGE_0800AM), index.getBusyRanges(PERSON_A));
+  }
+
+  @Test
+  public void eventAddedTwiceIsRemovedTwice() {
+    Event event = new Event("Event 1", RANGE_0800AM, Arrays.asList(PERSON_A));
+    index.add(event);
+    index.add(event);
+
+    Assert.assertTrue(index.remove(event));
+    Assert.assertEquals(Arrays.asList(RANGE_0800AM), index.getBusyRanges(PERSON_A));
+    Assert.assertTrue(index.remove(event));
+    Assert.assertEquals(Collections.emptyList(), index.getBusyRanges(PERSON_A));
+    Assert.assertFalse(index.remove(event));
+  }
+
+  @Test
+  public void getEventsReflectsChanges() {
+    Event event1 = new Event("Event 1", RANGE_0800AM, Arrays.asList(PERSON_A));
+    Event event2 = new Event("Event 2", RANGE_1000AM, Arrays.asList(PERSON_B));
+    index.add(event1);
+    index.add(event1);
+    index.add(event2);
+    index.remove(event2);
+
+    Assert.assertEquals(Arrays.asList(event1, event1), index.getEvents());
+  }
+
+  @Test
+  public void queryReflectsChanges() {
+    SweepLineMeetingQuery query = new SweepLineMeetingQuery();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    Event event = new Event("Event 1", RANGE_0800AM, Arrays.asList(PERSON_A));
+
+    index.add(event);
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, RANGE_0800AM.start(), false),
+        TimeRange.fromStartEnd(RANGE_0800AM.end(), TimeRange.END_OF_DAY, true));
+    Assert.assertEquals(expected, query.query(index, request));
+
+    index.remove(event);
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), query.query(index, request));
+  }
+}
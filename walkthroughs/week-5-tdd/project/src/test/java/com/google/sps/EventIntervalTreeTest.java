@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class EventIntervalTreeTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Event EVENT_1 = new Event("Event 1",
+      TimeRange.fromStartDuration(8 * 60, 60), Arrays.asList(PERSON_A));
+  private static final Event EVENT_2 = new Event("Event 2",
+      TimeRange.fromStartDuration(8 * 60 + 30, 60), Arrays.asList(PERSON_B));
+  private static final Event EVENT_3 = new Event("Event 3",
+      TimeRange.fromStartDuration(10 * 60, 30), Arrays.asList(PERSON_A, PERSON_C));
+
+  private final EventIntervalTree tree =
+      new EventIntervalTree(Arrays.asList(EVENT_3, EVENT_1, EVENT_2));
+
+  @Test
+  public void stab() {
+    Assert.assertEquals(Arrays.asList(EVENT_1), tree.stab(8 * 60));
+    Assert.assertEquals(Arrays.asList(EVENT_1, EVENT_2), tree.stab(8 * 60 + 45));
+    // Ends are not included.
+    Assert.assertEquals(Collections.emptyList(), tree.stab(9 * 60 + 30));
+    Assert.assertEquals(Collections.emptyList(), tree.stab(0));
+  }
+
+  @Test
+  public void overlapping() {
+    Assert.assertEquals(Arrays.asList(EVENT_2, EVENT_3),
+        tree.overlapping(TimeRange.fromStartEnd(9 * 60, 10 * 60, true)));
+    Assert.assertEquals(Collections.emptyList(),
+        tree.overlapping(TimeRange.fromStartEnd(9 * 60 + 30, 10 * 60, false)));
+  }
+
+  @Test
+  public void conflicts() {
+    TimeRange when = TimeRange.fromStartEnd(8 * 60, 11 * 60, false);
+
+    Assert.assertEquals(Arrays.asList(EVENT_1, EVENT_3),
+        tree.conflicts(when, Arrays.asList(PERSON_A)));
+    Assert.assertEquals(Arrays.asList(EVENT_3), tree.conflicts(when, Arrays.asList(PERSON_C)));
+    Assert.assertEquals(Collections.emptyList(),
+        tree.conflicts(TimeRange.fromStartDuration(9 * 60 + 30, 30), Arrays.asList(PERSON_A)));
+  }
+
+  @Test
+  public void emptyTree() {
+    EventIntervalTree empty = new EventIntervalTree(Collections.<Event>emptyList());
+
+    Assert.assertEquals(0, empty.size());
+    Assert.assertEquals(Collections.emptyList(), empty.stab(0));
+    Assert.assertEquals(Collections.emptyList(), empty.overlapping(TimeRange.WHOLE_DAY));
+  }
+
+  @Test
+  public void sameAsCheckingEveryEvent() {
+    // Includes events and windows without duration, which TimeRange treats specially.
+    Random random = new Random(42);
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      events.add(new Event("Event " + i,
+          TimeRange.fromStartDuration(random.nextInt(10000), random.nextInt(200)),
+          Collections.<String>emptyList()));
+    }
+    EventIntervalTree tree = new EventIntervalTree(events);
+
+    for (int i = 0; i < 500; i++) {
+      long point = random.nextInt(10400) - 200;
+      TimeRange window = TimeRange.fromStartDuration(point, random.nextInt(100));
+      List<Event> stabbed = new ArrayList<>();
+      List<Event> overlapping = new ArrayList<>();
+      for (Event event : events) {
+        if (event.getWhen().contains(point)) {
+          stabbed.add(event);
+        }
+        if (event.getWhen().overlaps(window)) {
+          overlapping.add(event);
+        }
+      }
+
+      assertSameEvents(stabbed, tree.stab(point));
+      assertSameEvents(overlapping, tree.overlapping(window));
+    }
+  }
+
+  private static void assertSameEvents(List<Event> expected, List<Event> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    Assert.assertTrue(actual.containsAll(expected));
+  }
+}
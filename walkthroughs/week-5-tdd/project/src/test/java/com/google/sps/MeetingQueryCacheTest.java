@@ -0,0 +1,129 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class MeetingQueryCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final TimeRange RANGE_0800AM = TimeRange.fromStartDuration(8 * 60, 30);
+  private static final TimeRange RANGE_0900AM = TimeRange.fromStartDuration(9 * 60, 30);
+
+  private EventIndex index;
+  private SweepLineMeetingQuery query;
+  private MeetingQueryCache cache;
+
+  @Before
+  public void setUp() {
+    index = new EventIndex();
+    index.add(new Event("Event 1", RANGE_0800AM, Arrays.asList(PERSON_A)));
+    query = new SweepLineMeetingQuery();
+    cache = new MeetingQueryCache(index, query, 2);
+  }
+
+  @Test
+  public void sameAttendeesInAnyOrderHit() {
+    Collection<TimeRange> first =
+        cache.query(new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30));
+    Collection<TimeRange> second =
+        cache.query(new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), 30));
+
+    Assert.assertEquals(first, second);
+    Assert.assertEquals(
+        query.query(index, new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30)), second);
+    MeetingQueryCache.Stats stats = cache.getStats();
+    Assert.assertEquals(1, stats.getHits());
+    Assert.assertEquals(1, stats.getMisses());
+    Assert.assertEquals(0.5, stats.getHitRate(), 0);
+  }
+
+  @Test
+  public void durationAndOptionalAttendeesArePartOfTheKey() {
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_A), 30));
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_A), 60));
+    MeetingRequest withOptional = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    withOptional.addOptionalAttendee(PERSON_B);
+    cache.query(withOptional);
+
+    Assert.assertEquals(0, cache.getStats().getHits());
+    Assert.assertEquals(3, cache.getStats().getMisses());
+  }
+
+  @Test
+  public void changeOfAnAttendeeInvalidates() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    MeetingRequest optionalRequest = new MeetingRequest(Collections.<String>emptyList(), 30);
+    optionalRequest.addOptionalAttendee(PERSON_A);
+    cache.query(request);
+    cache.query(optionalRequest);
+
+    Event event = new Event("Event 2", RANGE_0900AM, Arrays.asList(PERSON_A, PERSON_C));
+    index.add(event);
+
+    Assert.assertEquals(query.query(index, request), cache.query(request));
+    Assert.assertEquals(query.query(index, optionalRequest), cache.query(optionalRequest));
+    Assert.assertEquals(0, cache.getStats().getHits());
+    Assert.assertEquals(2, cache.getStats().getInvalidations());
+
+    index.remove(event);
+
+    Assert.assertEquals(query.query(index, request), cache.query(request));
+    Assert.assertEquals(0, cache.getStats().getHits());
+  }
+
+  @Test
+  public void changeOfOtherPeopleKeepsTheAnswer() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+    cache.query(request);
+
+    index.add(new Event("Event 2", RANGE_0900AM, Arrays.asList(PERSON_C)));
+    cache.query(request);
+
+    Assert.assertEquals(1, cache.getStats().getHits());
+    Assert.assertEquals(0, cache.getStats().getInvalidations());
+  }
+
+  @Test
+  public void leastRecentlyUsedIsEvicted() {
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), 30);
+    MeetingRequest requestC = new MeetingRequest(Arrays.asList(PERSON_C), 30);
+    cache.query(requestA);
+    cache.query(requestB);
+    cache.query(requestA);
+    cache.query(requestC);
+
+    // B was used least recently, so it was evicted when C was added.
+    cache.query(requestA);
+    cache.query(requestB);
+
+    MeetingQueryCache.Stats stats = cache.getStats();
+    Assert.assertEquals(2, stats.getHits());
+    Assert.assertEquals(4, stats.getMisses());
+    Assert.assertEquals(2, stats.getEvictions());
+    Assert.assertEquals(2, stats.getSize());
+  }
+}
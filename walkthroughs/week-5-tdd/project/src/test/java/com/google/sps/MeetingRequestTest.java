@@ -44,4 +44,45 @@ public final class MeetingRequestTest {
     int expected = 0;
     Assert.assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void requestWithEveryFieldIsWellFormed() {
+    MeetingRequest request = JsonCodec.getGson().fromJson(
+        "{\"attendees\":[\"Person A\"],\"optional_attendees\":[],\"duration\":30}",
+        MeetingRequest.class);
+
+    Assert.assertTrue(request.isWellFormed());
+    Assert.assertTrue(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR).isWellFormed());
+  }
+
+  @Test
+  public void requestWithoutOptionalAttendeesIsMalformed() {
+    MeetingRequest request = JsonCodec.getGson().fromJson(
+        "{\"duration\":30,\"attendees\":[\"Person A\"]}", MeetingRequest.class);
+
+    Assert.assertFalse(request.isWellFormed());
+  }
+
+  @Test
+  public void requestWithoutAttendeesIsMalformed() {
+    MeetingRequest request = JsonCodec.getGson().fromJson(
+        "{\"duration\":30,\"optional_attendees\":[]}", MeetingRequest.class);
+
+    Assert.assertFalse(request.isWellFormed());
+  }
+
+  @Test
+  public void requestWithNullAttendeeIsMalformed() {
+    MeetingRequest request = JsonCodec.getGson().fromJson(
+        "{\"attendees\":[null],\"optional_attendees\":[],\"duration\":30}",
+        MeetingRequest.class);
+
+    Assert.assertFalse(request.isWellFormed());
+  }
+
+  @Test
+  public void requestWithoutPositiveDurationIsMalformed() {
+    Assert.assertFalse(new MeetingRequest(Arrays.asList(PERSON_A), 0).isWellFormed());
+    Assert.assertFalse(new MeetingRequest(Arrays.asList(PERSON_A), -30).isWellFormed());
+  }
+}
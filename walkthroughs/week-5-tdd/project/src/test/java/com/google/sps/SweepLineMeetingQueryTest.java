@@ -0,0 +1,191 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Horizons other than one day and batches, which only the sweep line supports. */
+@RunWith(JUnit4.class)
+public final class SweepLineMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final long MINUTES_PER_DAY = 24 * 60;
+  private static final TimeRange WEEK = TimeRange.fromStartDuration(0, 7 * MINUTES_PER_DAY);
+
+  @Test
+  public void meetingCanSpanMidnightInAWeek() {
+    // Busy until 20:00 on Monday and from 8:00 on Tuesday, so the only 12 hour gap is overnight.
+    long mondayEvening = TimeRange.getTimeInMinutes(20, 0);
+    long tuesdayMorning = MINUTES_PER_DAY + TimeRange.getTimeInMinutes(8, 0);
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(0, mondayEvening, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(tuesdayMorning, WEEK.end(), false),
+            Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 12 * 60);
+
+    Collection<TimeRange> actual = new SweepLineMeetingQuery(WEEK).query(events, request);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(mondayEvening, tuesdayMorning, false)), actual);
+  }
+
+  @Test
+  public void meetingLongerThanADayFitsInAWeek() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 3 * MINUTES_PER_DAY);
+
+    Collection<TimeRange> actual =
+        new SweepLineMeetingQuery(WEEK).query(Collections.<Event>emptyList(), request);
+
+    Assert.assertEquals(Arrays.asList(WEEK), actual);
+    Assert.assertEquals(Collections.emptyList(),
+        new SweepLineMeetingQuery().query(Collections.<Event>emptyList(), request));
+  }
+
+  @Test
+  public void secondsSinceTheEpoch() {
+    Instant start = Instant.parse("2020-07-06T00:00:00Z");
+    TimeRange quarter = TimeRange.fromStartEnd(
+        TimeRange.getTimeSinceEpoch(start, ChronoUnit.SECONDS),
+        TimeRange.getTimeSinceEpoch(start.plus(91, ChronoUnit.DAYS), ChronoUnit.SECONDS), false);
+    long eventStart = TimeRange.getTimeSinceEpoch(start.plusSeconds(90), ChronoUnit.SECONDS);
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(eventStart, 30), Arrays.asList(PERSON_A)));
+    // 90 seconds fit before the event, 89 do not fit between it and the end of the horizon.
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 90);
+
+    Collection<TimeRange> actual = new SweepLineMeetingQuery(quarter).query(events, request);
+
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartEnd(quarter.start(), eventStart, false),
+        TimeRange.fromStartEnd(eventStart + 30, quarter.end(), false)), actual);
+  }
+
+  @Test
+  public void eventsOutsideOfTheHorizonAreIgnored() {
+    TimeRange tuesday = TimeRange.fromStartDuration(MINUTES_PER_DAY, MINUTES_PER_DAY);
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(60, 60), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(MINUTES_PER_DAY - 30, 60),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+
+    Collection<TimeRange> actual = new SweepLineMeetingQuery(tuesday).query(events, request);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(MINUTES_PER_DAY + 30, tuesday.end(), false)), actual);
+  }
+
+  @Test
+  public void indexAndEncodedCalendarUseTheHorizon() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(MINUTES_PER_DAY, 60),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+    SweepLineMeetingQuery query = new SweepLineMeetingQuery(WEEK);
+
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(0, MINUTES_PER_DAY, false),
+        TimeRange.fromStartEnd(MINUTES_PER_DAY + 60, WEEK.end(), false));
+
+    Assert.assertEquals(expected, query.query(events, request));
+    Assert.assertEquals(expected, query.query(new EventIndex(events), request));
+    Assert.assertEquals(expected, query.query(new EncodedCalendar(events), request));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void emptyHorizonIsRejected() {
+    new SweepLineMeetingQuery(TimeRange.fromStartDuration(0, 0));
+  }
+
+  @Test
+  public void batchAnswersEveryRequestLikeASingleQuery() {
+    Random random = new Random(42);
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      TimeRange when = TimeRange.fromStartDuration(
+          random.nextInt((int) WEEK.duration()), 15 + random.nextInt(120));
+      events.add(new Event("Event " + i, when, Arrays.asList(person(random), person(random))));
+    }
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      MeetingRequest request = new MeetingRequest(
+          Arrays.asList(person(random), person(random)), 30 + random.nextInt(300));
+      request.addOptionalAttendee(person(random));
+      requests.add(request);
+    }
+    EventIndex index = new EventIndex(events);
+    SweepLineMeetingQuery query = new SweepLineMeetingQuery(WEEK);
+
+    ConcurrentHashMap<Integer, Collection<TimeRange>> results = new ConcurrentHashMap<>();
+    AtomicInteger calls = new AtomicInteger();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    query.queryAll(index, requests, pool, (position, times) -> {
+      calls.incrementAndGet();
+      results.put(position, times);
+    });
+    pool.shutdown();
+
+    Assert.assertEquals(requests.size(), calls.get());
+    for (int i = 0; i < requests.size(); i++) {
+      Assert.assertEquals(query.query(events, requests.get(i)), results.get(i));
+    }
+  }
+
+  @Test
+  public void emptyBatch() {
+    AtomicInteger calls = new AtomicInteger();
+
+    new SweepLineMeetingQuery().queryAll(new EventIndex(), Collections.<MeetingRequest>emptyList(),
+        ForkJoinPool.commonPool(), (position, times) -> calls.incrementAndGet());
+
+    Assert.assertEquals(0, calls.get());
+  }
+
+  @Test
+  public void reusedSlotsAreReplaced() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(MINUTES_PER_DAY, 60),
+            Arrays.asList(PERSON_A)));
+    SweepLineMeetingQuery query = new SweepLineMeetingQuery(WEEK);
+    TimeSlots slots = new TimeSlots();
+
+    query.query(events, new MeetingRequest(Arrays.asList(PERSON_A), 60), slots);
+    Assert.assertEquals(2, slots.size());
+    query.query(events, new MeetingRequest(Arrays.asList(PERSON_B), 60), slots);
+    Assert.assertEquals(Arrays.asList(WEEK), slots.toTimeRanges());
+    query.query(events, new MeetingRequest(Arrays.asList(PERSON_B), 8 * MINUTES_PER_DAY), slots);
+    Assert.assertEquals(0, slots.size());
+  }
+
+  private static String person(Random random) {
+    return "Person " + random.nextInt(20);
+  }
+}
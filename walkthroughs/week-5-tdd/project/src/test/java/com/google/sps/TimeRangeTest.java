@@ -14,6 +14,8 @@
 
 package com.google.sps;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -184,4 +186,17 @@ public final class TimeRangeTest {
     Assert.assertTrue(emptyMiddle.overlaps(range));
     Assert.assertTrue(emptyEnd.overlaps(range));
   }
+
+  @Test
+  public void timesBeyondOneDay() {
+    long start = TimeRange.getTimeSinceEpoch(
+        Instant.parse("2020-07-06T09:00:00Z"), ChronoUnit.MILLIS);
+    TimeRange range = TimeRange.fromStartDuration(start, 3_600_000L);
+
+    Assert.assertEquals(1594026000000L, start);
+    Assert.assertEquals(start + 3_600_000L, range.end());
+    Assert.assertTrue(range.contains(start + 3_599_999L));
+    Assert.assertFalse(range.contains(start + 3_600_000L));
+    Assert.assertTrue(range.overlaps(TimeRange.fromStartDuration(start - 10, 11)));
+  }
 }
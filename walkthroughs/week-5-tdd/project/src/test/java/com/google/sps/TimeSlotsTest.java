@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class TimeSlotsTest {
+  @Test
+  public void growsAndKeepsOrder() {
+    TimeSlots slots = new TimeSlots(1);
+    for (int i = 0; i < 100; i++) {
+      slots.add(10 * i, 10 * i + 5);
+    }
+
+    Assert.assertEquals(100, slots.size());
+    Assert.assertEquals(990, slots.getStart(99));
+    Assert.assertEquals(995, slots.getEnd(99));
+    Assert.assertEquals(TimeRange.fromStartDuration(20, 5), slots.toTimeRanges().get(2));
+  }
+
+  @Test
+  public void clearAndCopy() {
+    TimeSlots slots = new TimeSlots();
+    slots.add(0, 30);
+    TimeSlots copy = slots.copy();
+
+    slots.clear();
+    slots.add(60, 90);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(0, 30)), copy.toTimeRanges());
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(60, 30)), slots.toTimeRanges());
+
+    slots.copyFrom(copy);
+    Assert.assertEquals(copy.toTimeRanges(), slots.toTimeRanges());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void readingPastTheEndFails() {
+    TimeSlots slots = new TimeSlots();
+    slots.add(0, 30);
+    slots.clear();
+
+    slots.getStart(0);
+  }
+
+  @Test
+  public void jsonIsTheSameAsGson() throws IOException {
+    TimeSlots slots = new TimeSlots();
+    slots.add(0, 480);
+    slots.add(-60, 0);
+    slots.add(1594026000000L, 1594029600000L);
+    slots.add(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    StringWriter json = new StringWriter();
+    slots.writeJson(json);
+
+    Assert.assertEquals(JsonCodec.getGson().toJson(slots.toTimeRanges()), json.toString());
+  }
+
+  @Test
+  public void emptyJson() throws IOException {
+    StringWriter json = new StringWriter();
+    new TimeSlots().writeJson(json);
+
+    Assert.assertEquals("[]", json.toString());
+  }
+}